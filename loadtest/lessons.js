@@ -0,0 +1,91 @@
+// k6 load test comparing platform-thread and virtual-thread request handling.
+//
+// Run the service once per mode and keep everything else (database, file service, pool sizes) identical:
+//   VIRTUAL_THREADS_ENABLED=false java -jar target/content-service.jar
+//   VIRTUAL_THREADS_ENABLED=true  java -jar target/content-service.jar
+// then:
+//   k6 run -e MODE=platform -e BASE_URL=http://localhost:8080 -e TOKEN=<jwt> -e LESSON_ID=<uuid> loadtest/lessons.js
+//   k6 run -e MODE=virtual  -e BASE_URL=http://localhost:8080 -e TOKEN=<jwt> -e LESSON_ID=<uuid> loadtest/lessons.js
+//
+// The ramp goes well past Tomcat's default 200 worker threads. Requests are tagged with the target
+// of the stage they run in, so the summary reports http_req_failed and http_req_duration per stage.
+// Compare, per mode, the highest stage with http_req_failed below 1% (the concurrency limit) and
+// p(99) of http_req_duration. Each run also writes its full summary to loadtest/<MODE>-summary.json.
+import http from 'k6/http';
+import exec from 'k6/execution';
+import { check } from 'k6';
+import { textSummary } from 'https://jslib.k6.io/k6-summary/0.0.2/index.js';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const TOKEN = __ENV.TOKEN;
+const LESSON_ID = __ENV.LESSON_ID;
+const MODE = __ENV.MODE || 'unlabelled';
+
+const STAGES = [
+    { duration: '1m', target: 100 },
+    { duration: '1m', target: 200 },
+    { duration: '1m', target: 400 },
+    { duration: '1m', target: 800 },
+    { duration: '1m', target: 1600 },
+    { duration: '30s', target: 0 },
+];
+
+const seconds = (duration) => parseInt(duration, 10) * (duration.endsWith('m') ? 60 : 1);
+
+// end of each stage in milliseconds since the start of the run
+const STAGE_ENDS = STAGES.reduce((ends, stage) => {
+    ends.push((ends.length ? ends[ends.length - 1] : 0) + seconds(stage.duration) * 1000);
+    return ends;
+}, []);
+
+const currentStage = () => {
+    const elapsed = exec.instance.currentTestRunDuration;
+    const index = STAGE_ENDS.findIndex((end) => elapsed < end);
+    return String(STAGES[index < 0 ? STAGES.length - 1 : index].target);
+};
+
+// a threshold per stage makes k6 report that stage's submetric in the summary
+const perStage = {};
+for (const stage of STAGES.filter((stage) => stage.target > 0)) {
+    perStage[`http_req_failed{stage:${stage.target}}`] = ['rate<0.01'];
+    perStage[`http_req_duration{stage:${stage.target}}`] = ['p(99)<1000'];
+}
+
+export const options = {
+    scenarios: {
+        ramp: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: STAGES,
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    thresholds: {
+        'http_req_duration{endpoint:list}': ['p(99)<1000'],
+        'http_req_duration{endpoint:content}': ['p(99)<1000'],
+        ...perStage,
+    },
+};
+
+const params = (endpoint) => ({
+    headers: { Authorization: `Bearer ${TOKEN}` },
+    tags: { endpoint, stage: currentStage() },
+});
+
+export default function () {
+    // database only
+    const list = http.get(`${BASE_URL}/lessons?pageSize=20&cursor=`, params('list'));
+    check(list, { 'list 200': (r) => r.status === 200 });
+
+    // database plus a ranged read from the file service
+    const page = Math.floor(Math.random() * 5);
+    const content = http.get(`${BASE_URL}/lessons/${LESSON_ID}/content?pageNo=${page}`, params('content'));
+    check(content, { 'content 200': (r) => r.status === 200 });
+}
+
+export function handleSummary(data) {
+    return {
+        stdout: textSummary(data, { indent: ' ', enableColors: true }),
+        [`loadtest/${MODE}-summary.json`]: JSON.stringify(data, null, 2),
+    };
+}
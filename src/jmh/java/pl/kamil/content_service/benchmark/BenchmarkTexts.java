@@ -0,0 +1,43 @@
+package pl.kamil.content_service.benchmark;
+
+import java.util.Random;
+
+/**
+ * Deterministic lesson-like texts for the benchmarks, so runs are comparable.
+ */
+final class BenchmarkTexts {
+
+    private static final String[] ASCII_WORDS = {
+            "the", "lesson", "introduces", "a", "new", "concept", "and", "explains", "it", "with", "examples."
+    };
+    private static final String[] LATIN_EXT_WORDS = {
+            "zażółć", "gęślą", "jaźń", "lekcja", "wprowadza", "nowe", "pojęcie", "i", "wyjaśnia", "przykłady."
+    };
+    private static final String[] CJK_WORDS = {
+            "東京", "大阪", "授業", "概念", "説明", "例文", "学生", "日本語", "練習"
+    };
+
+    private BenchmarkTexts() {
+    }
+
+    /**
+     * @param encoding one of {@code ascii}, {@code latin-ext}, {@code cjk}
+     * @param size     approximate length in characters
+     */
+    static String generate(String encoding, int size) {
+        String[] words = switch (encoding) {
+            case "ascii" -> ASCII_WORDS;
+            case "latin-ext" -> LATIN_EXT_WORDS;
+            case "cjk" -> CJK_WORDS;
+            default -> throw new IllegalArgumentException("Unknown encoding: " + encoding);
+        };
+
+        Random random = new Random(size);
+        StringBuilder text = new StringBuilder(size + 16);
+        while (text.length() < size) {
+            text.append(words[random.nextInt(words.length)]);
+            text.append(random.nextInt(12) == 0 ? '\n' : ' ');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,67 @@
+package pl.kamil.content_service.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestClient;
+import pl.kamil.content_service.domain.ContentCodec;
+import pl.kamil.content_service.infrastructure.FileStorageClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a stored lesson back through {@link FileStorageClient}, with the HTTP exchange
+ * replaced by an in-memory response so only decoding and copying are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileStorageReadBenchmark {
+
+    @Param({"1024", "65536", "1048576"})
+    int size;
+
+    @Param({"ascii", "latin-ext", "cjk"})
+    String encoding;
+
+    @Param({"IDENTITY", "DEFLATE"})
+    ContentCodec codec;
+
+    private FileStorageClient fileStorageClient;
+
+    @Setup
+    public void setUp() throws IOException {
+        byte[] text = BenchmarkTexts.generate(encoding, size).getBytes(StandardCharsets.UTF_8);
+        byte[] body = codec.encode(new ByteArrayInputStream(text)).readAllBytes();
+
+        // the range request is answered with the whole body, exercising the client-side skip fallback
+        RestClient restClient = RestClient.builder()
+                .requestFactory((uri, method) -> {
+                    MockClientHttpRequest request = new MockClientHttpRequest(method, uri);
+                    request.setResponse(new MockClientHttpResponse(body, HttpStatus.OK));
+                    return request;
+                })
+                .build();
+
+        fileStorageClient = new FileStorageClient(restClient, restClient);
+        ReflectionTestUtils.setField(fileStorageClient, "FILE_UPLOAD_URL", "http://files");
+    }
+
+    @Benchmark
+    public String getFileContent() {
+        return fileStorageClient.getFileContent("lesson", codec);
+    }
+
+    @Benchmark
+    public String getFileContentRange() {
+        return fileStorageClient.getFileContentRange("lesson", codec, size / 2, 30);
+    }
+}
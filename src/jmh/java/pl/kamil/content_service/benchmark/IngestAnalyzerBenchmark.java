@@ -0,0 +1,75 @@
+package pl.kamil.content_service.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import pl.kamil.content_service.application.TextPaginator;
+import pl.kamil.content_service.domain.IngestAnalyzer;
+import pl.kamil.content_service.domain.PageSink;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The analysis ingest runs while an uploaded lesson streams to storage: word count, page index,
+ * boundaries and checksum in one pass. The storage side is replaced by a stream that discards
+ * the bytes, so only the analysis is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IngestAnalyzerBenchmark {
+
+    @Param({"1024", "65536", "1048576"})
+    int size;
+
+    @Param({"ascii", "latin-ext", "cjk"})
+    String encoding;
+
+    private byte[] content;
+
+    @Setup
+    public void setUp() {
+        content = BenchmarkTexts.generate(encoding, size).getBytes(StandardCharsets.UTF_8);
+    }
+
+    // a single stored object, as ingest does with chunking off
+    @Benchmark
+    public void analyze(Blackhole blackhole) throws IOException {
+        IngestAnalyzer analyzer = new IngestAnalyzer(TextPaginator.DEFAULT_PAGE_SIZE);
+        consume(analyzer, blackhole);
+    }
+
+    // chunked ingest, which also hands every byte and page end to a sink
+    @Benchmark
+    public void analyzeWithSink(Blackhole blackhole) throws IOException {
+        IngestAnalyzer analyzer = new IngestAnalyzer(TextPaginator.DEFAULT_PAGE_SIZE, new PageSink() {
+            @Override
+            public void write(byte[] buffer, int offset, int length) {
+                blackhole.consume(length);
+            }
+
+            @Override
+            public void pageEnded(int pageCount, int endByte) {
+                blackhole.consume(endByte);
+            }
+        });
+        consume(analyzer, blackhole);
+    }
+
+    private void consume(IngestAnalyzer analyzer, Blackhole blackhole) throws IOException {
+        try (InputStream in = analyzer.tee(new ByteArrayInputStream(content))) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        blackhole.consume(analyzer.totalWords());
+        blackhole.consume(analyzer.pageIndex());
+        blackhole.consume(analyzer.boundaryIndex());
+        blackhole.consume(analyzer.checksum());
+    }
+}
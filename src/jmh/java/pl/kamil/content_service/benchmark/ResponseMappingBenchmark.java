@@ -0,0 +1,55 @@
+package pl.kamil.content_service.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import pl.kamil.content_service.api.response.LessonResponse;
+import pl.kamil.content_service.api.response.PagedResponse;
+import pl.kamil.content_service.domain.Lesson;
+import pl.kamil.content_service.domain.LessonSummary;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Mapping lessons to the detail and list endpoint responses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseMappingBenchmark {
+
+    @Param({"10", "100"})
+    int pageSize;
+
+    private Lesson lesson;
+    private Page<LessonSummary> lessons;
+
+    @Setup
+    public void setUp() {
+        UUID owner = UUID.randomUUID();
+        lesson = Lesson.create("lesson.txt", owner);
+        Instant now = Instant.now();
+        List<LessonSummary> content = IntStream.range(0, pageSize)
+                .mapToObj(i -> new LessonSummary(UUID.randomUUID(), "lesson-" + i + ".txt", owner, now, now))
+                .toList();
+        lessons = new PageImpl<>(content, PageRequest.of(3, pageSize), 10_000);
+    }
+
+    @Benchmark
+    public LessonResponse lessonResponseFrom() {
+        return LessonResponse.from(lesson);
+    }
+
+    @Benchmark
+    public PagedResponse<LessonResponse> pagedResponseFrom() {
+        return PagedResponse.from(lessons.map(LessonResponse::from));
+    }
+}
@@ -0,0 +1,47 @@
+package pl.kamil.content_service.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pl.kamil.content_service.api.response.PagedResponse;
+import pl.kamil.content_service.application.TextPaginator;
+import pl.kamil.content_service.domain.PageIndex;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cutting one page out of a lesson text, on the fly versus through the ingest-time index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextPaginatorBenchmark {
+
+    @Param({"1024", "65536", "1048576"})
+    int size;
+
+    @Param({"ascii", "latin-ext", "cjk"})
+    String encoding;
+
+    private String text;
+    private PageIndex pageIndex;
+    private int middlePage;
+
+    @Setup
+    public void setUp() {
+        text = BenchmarkTexts.generate(encoding, size);
+        pageIndex = PageIndex.build(text, TextPaginator.DEFAULT_PAGE_SIZE);
+        middlePage = pageIndex.pageCount() / 2;
+    }
+
+    @Benchmark
+    public PagedResponse<String> paginateOnTheFly() {
+        return TextPaginator.paginate(text, middlePage, TextPaginator.DEFAULT_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public PagedResponse<String> paginateWithIndex() {
+        return TextPaginator.paginate(text, pageIndex, middlePage);
+    }
+}
@@ -3,19 +3,39 @@ package pl.kamil.content_service.api;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import pl.kamil.content_service.api.request.BulkDeleteRequest;
 import pl.kamil.content_service.api.request.FileUploadRequest;
+import pl.kamil.content_service.api.response.BulkDeleteResponse;
 import pl.kamil.content_service.api.response.LessonContentResponse;
+import pl.kamil.content_service.api.response.LessonImportResponse;
 import pl.kamil.content_service.api.response.LessonResponse;
 import pl.kamil.content_service.api.response.PagedResponse;
+import pl.kamil.content_service.application.LessonImportService;
 import pl.kamil.content_service.application.LessonService;
+import pl.kamil.content_service.domain.Content;
+import pl.kamil.content_service.domain.ContentVersion;
+import pl.kamil.content_service.domain.PaginationUnit;
+import pl.kamil.content_service.shared.ErrorMessages;
 import pl.kamil.content_service.shared.validation.annotations.CurrentUserId;
 
 import java.io.IOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 @Slf4j
@@ -25,6 +45,11 @@ import java.util.UUID;
 public class LessonController {
 
     private final LessonService lessonService;
+    private final LessonImportService lessonImportService;
+
+    // private: pages are per user; a deleted lesson may linger in a browser cache this long
+    @Value("${lesson.content.cache-max-age:1d}")
+    private Duration contentMaxAge;
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<LessonResponse> createLesson(
@@ -43,23 +68,58 @@ public class LessonController {
         return ResponseEntity.created(location).body(response);
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<LessonImportResponse> importLessons(
+            @CurrentUserId UUID userId,
+            @RequestPart(value = "archive", required = false) MultipartFile archive,
+            @RequestPart(value = "files", required = false) List<MultipartFile> files) {
+
+        boolean hasFiles = files != null && !files.isEmpty();
+        if ((archive != null) == hasFiles) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_IMPORT);
+        }
+
+        LessonImportResponse response = archive != null
+                ? lessonImportService.importArchive(archive, userId)
+                : lessonImportService.importFiles(files, userId);
+        return ResponseEntity.ok().body(response);
+    }
+
     @GetMapping
     public ResponseEntity<PagedResponse<LessonResponse>> getLessons(
             @CurrentUserId  UUID userId,
             @RequestParam(value = "pageNo", defaultValue = "0") int pageNo,
-            @RequestParam(value = "pageSize", defaultValue = "10") int pageSize) {
+            @RequestParam(value = "pageSize", defaultValue = "10") int pageSize,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "withTotal", defaultValue = "false") boolean withTotal) {
 
-         PagedResponse<LessonResponse> response = lessonService.getAllLessons(userId, pageNo, pageSize);
+        // presence of the cursor parameter (empty for the first page) selects keyset pagination
+        PagedResponse<LessonResponse> response = cursor != null
+                ? lessonService.getLessonsAfter(userId, cursor, pageSize, withTotal)
+                : lessonService.getAllLessons(userId, pageNo, pageSize);
         return ResponseEntity.ok().body(response);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<LessonResponse> getLessonById(
             @PathVariable("id")  UUID lessonId,
-            @CurrentUserId UUID userId) {
+            @CurrentUserId UUID userId,
+            WebRequest request) {
 
          LessonResponse response = lessonService.getLesson(lessonId, userId);
-        return ResponseEntity.ok().body(response);
+
+        // metadata may still change, so clients revalidate every time and mostly get a bodiless 304
+        Instant modified = response.updatedAt() != null ? response.updatedAt() : response.createdAt();
+        String etag = response.id() + "-" + modified.toEpochMilli();
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (request.checkNotModified(etag, modified.toEpochMilli())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(modified)
+                .cacheControl(cacheControl)
+                .body(response);
     }
 
     @DeleteMapping("/{id}")
@@ -71,15 +131,134 @@ public class LessonController {
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<BulkDeleteResponse> deleteLessons(
+            @CurrentUserId UUID userId,
+            @Valid @RequestBody BulkDeleteRequest request) {
+
+        boolean byIds = request.ids() != null && !request.ids().isEmpty();
+        if (byIds == (request.olderThan() != null)) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_BULK_DELETE);
+        }
+
+        int deleted = byIds
+                ? lessonService.deleteLessons(request.ids(), userId)
+                : lessonService.deleteLessonsOlderThan(request.olderThan(), userId);
+        return ResponseEntity.ok().body(new BulkDeleteResponse(deleted));
+    }
+
     @GetMapping("/{id}/content")
     public ResponseEntity<LessonContentResponse> getContent(
             @PathVariable("id")  UUID lessonId,
             @CurrentUserId UUID userId,
             @RequestParam(value = "pageNo", defaultValue = "0") int pageNo,
-            @RequestParam(value = "pageSize", defaultValue = "30") int pageSize) {
+            @RequestParam(value = "pageSize", defaultValue = "30") int pageSize,
+            @RequestParam(value = "unit", defaultValue = "chars") String unit,
+            WebRequest request) {
+
+        PaginationUnit paginationUnit = PaginationUnit.fromParam(unit);
+        // a page never changes once uploaded, so its identity alone decides a 304, before any storage read
+        ContentVersion version = lessonService.getContentVersion(lessonId, userId);
+        String etag = contentEtag(version, paginationUnit, pageNo, pageSize);
+        CacheControl cacheControl = CacheControl.maxAge(contentMaxAge).cachePrivate().immutable();
+        if (request.checkNotModified(etag, version.createdAt().toEpochMilli())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+
+         LessonContentResponse contentResponse = lessonService.getLessonContent(lessonId, userId, pageNo, pageSize, paginationUnit);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(version.createdAt())
+                .cacheControl(cacheControl)
+                .body(contentResponse);
+    }
+
+    /**
+     * The whole lesson text as stored, or a single byte range of it, piped from storage to the client
+     * through a fixed buffer. Texts uploaded before their size was recorded are always sent whole.
+     */
+    @GetMapping("/{id}/content/raw")
+    public ResponseEntity<StreamingResponseBody> getRawContent(
+            @PathVariable("id")  UUID lessonId,
+            @CurrentUserId UUID userId,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            WebRequest request) {
+
+        Content content = lessonService.getRawContent(lessonId, userId);
+        String etag = content.getId() + "-" + (content.getChecksum() != null ? content.getChecksum() : "") + "-raw";
+        CacheControl cacheControl = CacheControl.maxAge(contentMaxAge).cachePrivate().immutable();
+        if (request.checkNotModified(etag, content.getCreatedAt().toEpochMilli())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+        }
+
+        MediaType textPlain = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+        Long size = content.getSizeBytes();
+        if (size == null) {
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .contentType(textPlain)
+                    .header(HttpHeaders.ACCEPT_RANGES, "none")
+                    .body(out -> lessonService.writeRawContent(content, 0, Long.MAX_VALUE, out));
+        }
+
+        // several ranges would need a multipart answer, the whole text is sent instead as RFC 9110 allows
+        List<HttpRange> ranges = parseRanges(range);
+        if (ranges.size() != 1) {
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .contentType(textPlain)
+                    .contentLength(size)
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .body(out -> lessonService.writeRawContent(content, 0, size, out));
+        }
+
+        long[] bounds = rangeBounds(ranges.get(0), size);
+        if (bounds == null) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                    .build();
+        }
+        long start = bounds[0];
+        long end = bounds[1];
+        return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .contentType(textPlain)
+                .contentLength(end - start + 1)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size)
+                .body(out -> lessonService.writeRawContent(content, start, end - start + 1, out));
+    }
+
+    // first and last byte of the range, or null when none of it lies within the text
+    private static long[] rangeBounds(HttpRange range, long size) {
+        try {
+            long start = range.getRangeStart(size);
+            long end = range.getRangeEnd(size);
+            return start <= end ? new long[] {start, end} : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // a malformed Range header is ignored, as RFC 9110 asks
+    private static List<HttpRange> parseRanges(String range) {
+        if (range == null) {
+            return List.of();
+        }
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
 
-         LessonContentResponse contentResponse = lessonService.getLessonContent(lessonId, userId, pageNo, pageSize);
-        return ResponseEntity.ok().body(contentResponse);
+    // shared with ReactiveLessonController, both endpoints serve the same pages
+    static String contentEtag(ContentVersion version, PaginationUnit unit, int pageNo, int pageSize) {
+        String checksum = version.checksum() != null ? version.checksum() : "";
+        return version.contentId() + "-" + checksum + "-" + unit.name().toLowerCase() + "-" + pageSize + "-" + pageNo;
     }
 
 }
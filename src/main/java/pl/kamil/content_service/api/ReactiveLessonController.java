@@ -0,0 +1,85 @@
+package pl.kamil.content_service.api;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import pl.kamil.content_service.api.response.LessonContentResponse;
+import pl.kamil.content_service.application.LessonService;
+import pl.kamil.content_service.application.ReactiveLessonContentService;
+import pl.kamil.content_service.domain.ContentVersion;
+import pl.kamil.content_service.domain.PaginationUnit;
+import pl.kamil.content_service.shared.validation.annotations.CurrentUserId;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Variants of the content endpoints that release the request thread while storage is read, available
+ * with {@code file.storage.client=webclient}. Spring MVC writes their results asynchronously.
+ */
+@RestController
+@RequestMapping("/lessons")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "file.storage.client", havingValue = "webclient")
+public class ReactiveLessonController {
+
+    private final ReactiveLessonContentService contentService;
+    private final LessonService lessonService;
+
+    @Value("${lesson.content.cache-max-age:1d}")
+    private Duration contentMaxAge;
+
+    // revalidated like /content, a 304 is answered before anything is read from storage
+    @GetMapping("/{id}/content/reactive")
+    public Mono<ResponseEntity<LessonContentResponse>> getContent(
+            @PathVariable("id")  UUID lessonId,
+            @CurrentUserId UUID userId,
+            @RequestParam(value = "pageNo", defaultValue = "0") int pageNo,
+            @RequestParam(value = "pageSize", defaultValue = "30") int pageSize,
+            @RequestParam(value = "unit", defaultValue = "chars") String unit,
+            WebRequest request) {
+
+        PaginationUnit paginationUnit = PaginationUnit.fromParam(unit);
+        ContentVersion version = lessonService.getContentVersion(lessonId, userId);
+        String etag = LessonController.contentEtag(version, paginationUnit, pageNo, pageSize);
+        CacheControl cacheControl = CacheControl.maxAge(contentMaxAge).cachePrivate().immutable();
+        if (request.checkNotModified(etag, version.createdAt().toEpochMilli())) {
+            return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build());
+        }
+
+        return contentService.getLessonContent(lessonId, userId, pageNo, pageSize, paginationUnit)
+                .map(contentResponse -> ResponseEntity.ok()
+                        .eTag(etag)
+                        .lastModified(version.createdAt())
+                        .cacheControl(cacheControl)
+                        .body(contentResponse));
+    }
+
+    /**
+     * The whole lesson text, sent as it arrives with each piece flushed to the client. Unlike
+     * {@code /content/raw} it has no Content-Length and ignores Range: the pieces are re-encoded from
+     * decoded text, so their total only matches the recorded size for valid UTF-8. Clients that need
+     * to resume or seek use {@code /content/raw}; {@code Accept-Ranges: none} tells them so.
+     */
+    @GetMapping(value = "/{id}/content/raw/reactive", produces = "text/plain;charset=UTF-8")
+    public ResponseEntity<Flux<String>> getRawContent(
+            @PathVariable("id")  UUID lessonId,
+            @CurrentUserId UUID userId) {
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.ACCEPT_RANGES, "none")
+                .body(contentService.getRawContent(lessonId, userId));
+    }
+}
@@ -0,0 +1,14 @@
+package pl.kamil.content_service.api.request;
+
+import jakarta.validation.constraints.Size;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+// exactly one of the selectors has to be given
+public record BulkDeleteRequest(
+        @Size(max = 1000)
+        List<UUID> ids,
+        Instant olderThan) {
+}
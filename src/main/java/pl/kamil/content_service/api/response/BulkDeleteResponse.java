@@ -0,0 +1,4 @@
+package pl.kamil.content_service.api.response;
+
+public record BulkDeleteResponse(int deleted) {
+}
@@ -1,5 +0,0 @@
-package pl.kamil.content_service.api.response;
-
-public record FileUploadResponse(
-        String s3Key
-) { }
@@ -0,0 +1,12 @@
+package pl.kamil.content_service.api.response;
+
+import java.util.List;
+
+public record LessonImportResponse(
+        List<LessonResponse> imported,
+        List<Failure> failed
+) {
+
+    public record Failure(String filename, String error) {
+    }
+}
@@ -2,6 +2,7 @@ package pl.kamil.content_service.api.response;
 
 import lombok.Builder;
 import pl.kamil.content_service.domain.Lesson;
+import pl.kamil.content_service.domain.LessonSummary;
 
 import java.time.Instant;
 import java.util.UUID;
@@ -22,4 +23,13 @@ public record LessonResponse(
                 lesson.getUpdatedAt()
         );
     }
+
+    public static LessonResponse from(LessonSummary lesson) {
+        return new LessonResponse(
+                lesson.id(),
+                lesson.title(),
+                lesson.createdAt(),
+                lesson.updatedAt()
+        );
+    }
 }
@@ -4,15 +4,24 @@ import org.springframework.data.domain.Page;
 
 import java.util.List;
 
+/**
+ * One page of results. In cursor mode {@code nextCursor} continues the listing and
+ * {@code totalElements}/{@code totalPages} are -1 unless the total was requested.
+ */
 public record PagedResponse<T>(
         List<T> content,
         int pageNo,
         int pageSize,
         long totalElements,
         int totalPages,
-        boolean last
+        boolean last,
+        String nextCursor
 ) {
 
+    public PagedResponse(List<T> content, int pageNo, int pageSize, long totalElements, int totalPages, boolean last) {
+        this(content, pageNo, pageSize, totalElements, totalPages, last, null);
+    }
+
     public static <T>PagedResponse<T> from(Page<T> page) {
         return new PagedResponse<>(
                 page.getContent(),
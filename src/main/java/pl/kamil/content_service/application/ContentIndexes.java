@@ -0,0 +1,68 @@
+package pl.kamil.content_service.application;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pl.kamil.content_service.domain.BoundaryIndex;
+import pl.kamil.content_service.domain.Content;
+import pl.kamil.content_service.domain.ContentBoundaries;
+import pl.kamil.content_service.domain.ContentPageIndex;
+import pl.kamil.content_service.domain.PageIndex;
+import pl.kamil.content_service.infrastructure.ContentBoundariesRepository;
+import pl.kamil.content_service.infrastructure.ContentPageIndexRepository;
+
+import java.util.UUID;
+
+/**
+ * Page and boundary indexes by content id, read from their tables on first use and then kept in
+ * memory, each kind bounded by its encoded size. An index never changes once its content is stored
+ * and content ids are never reused, so entries cannot go stale on any instance; those of deleted
+ * content simply age out.
+ */
+@Component
+public class ContentIndexes {
+
+    private final ContentPageIndexRepository pageIndexRepository;
+    private final ContentBoundariesRepository boundariesRepository;
+    private final Cache<UUID, PageIndex> pageIndexes;
+    private final Cache<UUID, BoundaryIndex> boundaryIndexes;
+
+    public ContentIndexes(
+            ContentPageIndexRepository pageIndexRepository,
+            ContentBoundariesRepository boundariesRepository,
+            @Value("${lesson.index-cache.pages.max-bytes:16777216}") long pagesMaxBytes,
+            @Value("${lesson.index-cache.boundaries.max-bytes:67108864}") long boundariesMaxBytes,
+            MeterRegistry meterRegistry) {
+        this.pageIndexRepository = pageIndexRepository;
+        this.boundariesRepository = boundariesRepository;
+        this.pageIndexes = Caffeine.newBuilder()
+                .maximumWeight(pagesMaxBytes)
+                .weigher((UUID contentId, PageIndex pageIndex) -> pageIndex.sizeBytes())
+                .recordStats()
+                .build();
+        this.boundaryIndexes = Caffeine.newBuilder()
+                .maximumWeight(boundariesMaxBytes)
+                .weigher((UUID contentId, BoundaryIndex boundaryIndex) -> boundaryIndex.sizeBytes())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, pageIndexes, "lesson.index.pages");
+        CaffeineCacheMetrics.monitor(meterRegistry, boundaryIndexes, "lesson.index.boundaries");
+    }
+
+    // null for lessons uploaded before page indexes had a table of their own, which is not remembered
+    public PageIndex pageIndex(Content content) {
+        return pageIndexes.get(content.getId(), contentId -> pageIndexRepository.findById(contentId)
+                .map(ContentPageIndex::getPageIndex)
+                .orElse(null));
+    }
+
+    // null for lessons uploaded before boundaries were recorded, which is not remembered either
+    public BoundaryIndex boundaryIndex(Content content) {
+        return boundaryIndexes.get(content.getId(), contentId -> boundariesRepository.findById(contentId)
+                .map(ContentBoundaries::getBoundaryIndex)
+                .orElse(null));
+    }
+}
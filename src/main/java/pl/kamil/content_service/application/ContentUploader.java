@@ -0,0 +1,197 @@
+package pl.kamil.content_service.application;
+
+import lombok.extern.slf4j.Slf4j;
+import pl.kamil.content_service.application.port.out.FileStorage;
+import pl.kamil.content_service.application.port.out.FileUpload;
+import pl.kamil.content_service.application.port.out.StoredFile;
+import pl.kamil.content_service.domain.Content;
+import pl.kamil.content_service.domain.ContentBoundaries;
+import pl.kamil.content_service.domain.ContentChunk;
+import pl.kamil.content_service.domain.ContentCodec;
+import pl.kamil.content_service.domain.ContentPageIndex;
+import pl.kamil.content_service.domain.IngestAnalyzer;
+import pl.kamil.content_service.domain.PageIndex;
+import pl.kamil.content_service.domain.PageSink;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Streams one lesson text into storage and analyzes it in the same pass. With a positive
+ * chunk size the text is stored as chunk objects of whole pages instead of a single object,
+ * each closed at the first page end at or past that many bytes, so a page view reads one chunk.
+ */
+@Slf4j
+final class ContentUploader {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final FileStorage fileStorage;
+    private final int chunkBytes;
+    private final LessonMetrics metrics;
+    private final String operation;
+
+    ContentUploader(FileStorage fileStorage, int chunkBytes, LessonMetrics metrics, String operation) {
+        this.fileStorage = fileStorage;
+        this.chunkBytes = chunkBytes;
+        this.metrics = metrics;
+        this.operation = operation;
+    }
+
+    /**
+     * Returns the new, not yet attached content with its page index and boundaries, which are saved on their own.
+     * Objects already stored are deleted again when the upload fails part way. The analysis
+     * interleaved with the upload is recorded as its own stage.
+     */
+    Uploaded upload(String filename, String contentType, long size, InputStream in) throws IOException {
+        return chunkBytes > 0
+                ? uploadChunks(filename, contentType, in)
+                : uploadWhole(filename, contentType, size, in);
+    }
+
+    private Uploaded uploadWhole(String filename, String contentType, long size, InputStream in) throws IOException {
+        IngestAnalyzer analyzer = new IngestAnalyzer(TextPaginator.DEFAULT_PAGE_SIZE);
+        StoredFile stored;
+        try (InputStream content = analyzer.tee(in)) {
+            stored = fileStorage.storeFile(new FileUpload(filename, contentType, size, content));
+        }
+        recordAnalysis(analyzer);
+        Content content = Content.create(
+                stored.s3Key(),
+                analyzer.totalWords(),
+                analyzer.sizeBytes(),
+                analyzer.checksum(),
+                stored.codec());
+        return uploaded(content, analyzer.pageIndex(), analyzer);
+    }
+
+    private Uploaded uploadChunks(String filename, String contentType, InputStream in) throws IOException {
+        ChunkWriter writer = new ChunkWriter(filename, contentType);
+        IngestAnalyzer analyzer = new IngestAnalyzer(TextPaginator.DEFAULT_PAGE_SIZE, writer);
+        try {
+            // the analyzer and its sink consume the bytes, full chunks are stored between reads
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (InputStream content = analyzer.tee(in)) {
+                while (content.read(buffer) != -1) {
+                    writer.flush();
+                }
+            }
+            // building the index announces the last page ends, what is left over forms the final chunk
+            PageIndex pageIndex = analyzer.pageIndex();
+            writer.finish();
+            recordAnalysis(analyzer);
+            Content content = Content.createChunked(
+                    writer.chunks,
+                    analyzer.totalWords(),
+                    analyzer.sizeBytes(),
+                    analyzer.checksum(),
+                    writer.codec);
+            return uploaded(content, pageIndex, analyzer);
+        } catch (IOException | RuntimeException e) {
+            cleanup(writer.chunks);
+            throw e;
+        }
+    }
+
+    record Uploaded(Content content, ContentPageIndex pageIndex, ContentBoundaries boundaries) {
+    }
+
+    private static Uploaded uploaded(Content content, PageIndex pageIndex, IngestAnalyzer analyzer) {
+        return new Uploaded(
+                content,
+                new ContentPageIndex(content, pageIndex),
+                new ContentBoundaries(content, analyzer.boundaryIndex()));
+    }
+
+    private void recordAnalysis(IngestAnalyzer analyzer) {
+        metrics.record(operation, "analyze", analyzer.analysisNanos());
+        metrics.recordPayload(operation, analyzer.sizeBytes());
+    }
+
+    private void cleanup(List<ContentChunk> chunks) {
+        if (chunks.isEmpty()) {
+            return;
+        }
+        try {
+            fileStorage.deleteFiles(chunks.stream().map(ContentChunk::getS3Key).toList());
+        } catch (Exception e) {
+            log.warn("Failed to cleanup {} uploaded chunks: {}", chunks.size(), e.getMessage());
+        }
+    }
+
+    // holds the bytes of the chunk being filled, plus whatever already streamed past its last page end
+    private final class ChunkWriter implements PageSink {
+
+        private final String filename;
+        private final String contentType;
+        private final List<ContentChunk> chunks = new ArrayList<>();
+        private ContentCodec codec = ContentCodec.IDENTITY;
+
+        private byte[] buffer = new byte[chunkBytes];
+        private int buffered;
+        // byte offset of buffer[0] in the text, and the first page stored from there
+        private int bufferStart;
+        private int firstPage;
+
+        // chunk ends decided by the page index but not stored yet, as {endByte, nextFirstPage}
+        private final Deque<int[]> ready = new ArrayDeque<>();
+        private int readyEnd;
+
+        private ChunkWriter(String filename, String contentType) {
+            this.filename = filename;
+            this.contentType = contentType;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            if (buffered + length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, buffered + length));
+            }
+            System.arraycopy(bytes, offset, buffer, buffered, length);
+            buffered += length;
+        }
+
+        // only noted here, uploading from inside the analyzer would count as analysis
+        @Override
+        public void pageEnded(int pageCount, int endByte) {
+            if (endByte - readyEnd >= chunkBytes) {
+                ready.add(new int[]{endByte, pageCount});
+                readyEnd = endByte;
+            }
+        }
+
+        private void flush() {
+            while (!ready.isEmpty()) {
+                int[] end = ready.poll();
+                store(end[0] - bufferStart, end[1]);
+            }
+        }
+
+        private void finish() {
+            flush();
+            // an empty text still gets its one, empty, chunk
+            if (buffered > 0 || chunks.isEmpty()) {
+                store(buffered, firstPage);
+            }
+        }
+
+        private void store(int length, int nextFirstPage) {
+            String name = filename + ".part" + chunks.size();
+            StoredFile stored = fileStorage.storeFile(
+                    new FileUpload(name, contentType, length, new ByteArrayInputStream(buffer, 0, length)));
+            chunks.add(new ContentChunk(stored.s3Key(), firstPage));
+            codec = stored.codec();
+
+            System.arraycopy(buffer, length, buffer, 0, buffered - length);
+            buffered -= length;
+            bufferStart += length;
+            firstPage = nextFirstPage;
+        }
+    }
+}
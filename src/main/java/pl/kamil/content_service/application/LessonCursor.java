@@ -0,0 +1,36 @@
+package pl.kamil.content_service.application;
+
+import pl.kamil.content_service.domain.LessonSummary;
+import pl.kamil.content_service.shared.ErrorMessages;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a user's lesson list ordered by {@code (createdAt, id)} descending.
+ * Clients only ever see it as an opaque token.
+ */
+public record LessonCursor(Instant createdAt, UUID id) {
+
+    public static LessonCursor of(LessonSummary lesson) {
+        return new LessonCursor(lesson.createdAt(), lesson.id());
+    }
+
+    public String encode() {
+        String raw = createdAt.getEpochSecond() + ":" + createdAt.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static LessonCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 3);
+            Instant createdAt = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new LessonCursor(createdAt, UUID.fromString(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(ErrorMessages.INVALID_CURSOR, e);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package pl.kamil.content_service.application;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import pl.kamil.content_service.api.response.LessonImportResponse;
+import pl.kamil.content_service.api.response.LessonResponse;
+import pl.kamil.content_service.application.exception.FileProcessingException;
+import pl.kamil.content_service.application.port.out.FileStorage;
+import pl.kamil.content_service.domain.Content;
+import pl.kamil.content_service.domain.ContentBoundaries;
+import pl.kamil.content_service.domain.ContentPageIndex;
+import pl.kamil.content_service.domain.Lesson;
+import pl.kamil.content_service.infrastructure.ContentBoundariesRepository;
+import pl.kamil.content_service.infrastructure.ContentPageIndexRepository;
+import pl.kamil.content_service.infrastructure.LessonRepository;
+import pl.kamil.content_service.shared.ErrorMessages;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Imports many lessons in one request. Files are uploaded and analyzed in parallel, the lessons
+ * are then inserted in one transaction. A file that fails is reported and does not stop the others.
+ * The request itself is bounded by the multipart limits like any upload; an archive is additionally
+ * bounded by the unpacked size of its entries, which the request size says little about.
+ */
+@Slf4j
+@Service
+public class LessonImportService {
+
+    // same limits as a single upload through FileUploadRequest
+    static final int MAX_FILE_SIZE = 1_048_576;
+    private static final String TEXT_PLAIN = "text/plain";
+
+    private final LessonRepository lessonRepository;
+    private final ContentPageIndexRepository contentPageIndexRepository;
+    private final ContentBoundariesRepository contentBoundariesRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final FileStorage fileStorage;
+    private final ExecutorService executor;
+    private final int maxFiles;
+    private final long maxBytes;
+    private final ContentUploader contentUploader;
+    private final LessonMetrics metrics;
+
+    public LessonImportService(
+            LessonRepository lessonRepository,
+            ContentPageIndexRepository contentPageIndexRepository,
+            ContentBoundariesRepository contentBoundariesRepository,
+            TransactionTemplate transactionTemplate,
+            FileStorage fileStorage,
+            @Qualifier("lessonImportExecutor") ExecutorService executor,
+            @Value("${lesson.import.max-files:500}") int maxFiles,
+            @Value("${lesson.import.max-bytes:52428800}") long maxBytes,
+            @Value("${file.storage.chunk-bytes:0}") int chunkBytes,
+            LessonMetrics metrics) {
+        this.lessonRepository = lessonRepository;
+        this.contentPageIndexRepository = contentPageIndexRepository;
+        this.contentBoundariesRepository = contentBoundariesRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.fileStorage = fileStorage;
+        this.executor = executor;
+        this.maxFiles = maxFiles;
+        this.maxBytes = maxBytes;
+        this.contentUploader = new ContentUploader(fileStorage, chunkBytes, metrics, LessonMetrics.IMPORT);
+        this.metrics = metrics;
+    }
+
+    public LessonImportResponse importFiles(List<MultipartFile> files, UUID userId) {
+        if (files.size() > maxFiles) {
+            throw new IllegalArgumentException(ErrorMessages.IMPORT_TOO_MANY_FILES);
+        }
+        if (files.stream().mapToLong(MultipartFile::getSize).sum() > maxBytes) {
+            throw new IllegalArgumentException(ErrorMessages.IMPORT_TOO_LARGE);
+        }
+
+        List<CompletableFuture<ImportResult>> results = files.stream()
+                .map(file -> submit(file.getOriginalFilename(), file.getContentType(), file.getSize(),
+                        file::getInputStream, userId))
+                .toList();
+        return persist(results);
+    }
+
+    public LessonImportResponse importArchive(MultipartFile archive, UUID userId) {
+        List<CompletableFuture<ImportResult>> results = new ArrayList<>();
+        long unpackedBytes = 0;
+
+        // entries are read one by one; each is buffered only until its task has uploaded it
+        try (ZipInputStream zip = new ZipInputStream(archive.getInputStream(), StandardCharsets.UTF_8)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory() || isHidden(entry.getName())) {
+                    continue;
+                }
+                String filename = baseName(entry.getName());
+                if (results.size() == maxFiles) {
+                    results.add(CompletableFuture.completedFuture(
+                            ImportResult.failed(filename, ErrorMessages.IMPORT_TOO_MANY_FILES)));
+                    break;
+                }
+
+                byte[] content = zip.readNBytes(MAX_FILE_SIZE + 1);
+                if (content.length > MAX_FILE_SIZE) {
+                    results.add(CompletableFuture.completedFuture(
+                            ImportResult.failed(filename, ErrorMessages.IMPORT_FILE_TOO_LARGE)));
+                    continue;
+                }
+                // a well compressed archive unpacks to far more than the request carried
+                unpackedBytes += content.length;
+                if (unpackedBytes > maxBytes) {
+                    results.add(CompletableFuture.completedFuture(
+                            ImportResult.failed(filename, ErrorMessages.IMPORT_TOO_LARGE)));
+                    break;
+                }
+                results.add(submit(filename, TEXT_PLAIN, content.length, () -> new ByteArrayInputStream(content), userId));
+            }
+        } catch (IOException e) {
+            // files already uploaded from the readable part of the archive would be orphaned
+            cleanup(fileKeys(results.stream().map(CompletableFuture::join).toList()));
+            throw new FileProcessingException(ErrorMessages.IMPORT_ARCHIVE_INVALID, e);
+        }
+        return persist(results);
+    }
+
+    private CompletableFuture<ImportResult> submit(
+            String filename, String contentType, long size, ContentSource source, UUID userId) {
+        return CompletableFuture.supplyAsync(() -> ingest(filename, contentType, size, source, userId), executor);
+    }
+
+    private ImportResult ingest(String filename, String contentType, long size, ContentSource source, UUID userId) {
+        if (size == 0) {
+            return ImportResult.failed(filename, ErrorMessages.IMPORT_FILE_EMPTY);
+        }
+        if (size > MAX_FILE_SIZE) {
+            return ImportResult.failed(filename, ErrorMessages.IMPORT_FILE_TOO_LARGE);
+        }
+        if (!TEXT_PLAIN.equals(contentType)) {
+            return ImportResult.failed(filename, ErrorMessages.IMPORT_FILE_TYPE_INVALID);
+        }
+
+        Content content = null;
+        try {
+            Lesson lesson = Lesson.create(filename, userId);
+            ContentUploader.Uploaded uploaded = metrics.time(LessonMetrics.IMPORT, "upload",
+                    () -> contentUploader.upload(filename, contentType, size, source.open()));
+            content = uploaded.content();
+            lesson.attacheContent(content);
+            return ImportResult.imported(filename, lesson, uploaded, content.fileKeys());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to import file {}: {}", filename, e.getMessage());
+            if (content != null) {
+                cleanup(content.fileKeys());
+            }
+            String error = e instanceof IOException ? ErrorMessages.FILE_DECODE_FAILED : e.getMessage();
+            return ImportResult.failed(filename, error);
+        }
+    }
+
+    private LessonImportResponse persist(List<CompletableFuture<ImportResult>> pending) {
+        List<ImportResult> results = pending.stream().map(CompletableFuture::join).toList();
+        List<ImportResult> imported = results.stream()
+                .filter(ImportResult::succeeded)
+                .toList();
+        List<Lesson> lessons = imported.stream().map(ImportResult::lesson).toList();
+        List<ContentPageIndex> pageIndexes = imported.stream().map(result -> result.uploaded().pageIndex()).toList();
+        List<ContentBoundaries> boundaries = imported.stream().map(result -> result.uploaded().boundaries()).toList();
+
+        // one transaction, rows go out in JDBC batches (hibernate.jdbc.batch_size)
+        List<Lesson> saved;
+        try {
+            saved = metrics.time(LessonMetrics.IMPORT, "persist", () -> transactionTemplate.execute(status -> {
+                List<Lesson> lessonRows = lessonRepository.saveAll(lessons);
+                // after the lessons, whose content ids the indexes take
+                contentPageIndexRepository.saveAll(pageIndexes);
+                contentBoundariesRepository.saveAll(boundaries);
+                return lessonRows;
+            }));
+        } catch (RuntimeException e) {
+            cleanup(fileKeys(results));
+            throw e;
+        }
+
+        List<LessonImportResponse.Failure> failures = results.stream()
+                .filter(result -> !result.succeeded())
+                .map(result -> new LessonImportResponse.Failure(result.filename(), result.error()))
+                .toList();
+        return new LessonImportResponse(saved.stream().map(LessonResponse::from).toList(), failures);
+    }
+
+    private static List<String> fileKeys(List<ImportResult> results) {
+        return results.stream()
+                .flatMap(result -> result.fileKeys().stream())
+                .toList();
+    }
+
+    private void cleanup(List<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        try {
+            metrics.time(LessonMetrics.IMPORT, "cleanup", () -> fileStorage.deleteFiles(keys));
+        } catch (Exception e) {
+            log.warn("Failed to cleanup {} imported files: {}", keys.size(), e.getMessage());
+        }
+    }
+
+    private static boolean isHidden(String entryName) {
+        return entryName.startsWith("__MACOSX/") || baseName(entryName).startsWith(".");
+    }
+
+    private static String baseName(String entryName) {
+        return entryName.substring(entryName.lastIndexOf('/') + 1);
+    }
+
+    @FunctionalInterface
+    private interface ContentSource {
+        InputStream open() throws IOException;
+    }
+
+    private record ImportResult(
+            String filename, Lesson lesson, ContentUploader.Uploaded uploaded, List<String> fileKeys, String error) {
+
+        static ImportResult imported(
+                String filename, Lesson lesson, ContentUploader.Uploaded uploaded, List<String> fileKeys) {
+            return new ImportResult(filename, lesson, uploaded, fileKeys, null);
+        }
+
+        static ImportResult failed(String filename, String error) {
+            return new ImportResult(filename, null, null, List.of(), error);
+        }
+
+        boolean succeeded() {
+            return error == null;
+        }
+    }
+}
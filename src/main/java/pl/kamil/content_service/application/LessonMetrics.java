@@ -0,0 +1,78 @@
+package pl.kamil.content_service.application;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers for the stages of lesson operations, tagged by operation, stage and outcome only,
+ * so the number of series stays fixed whatever lessons and users pass through.
+ */
+@Component
+public class LessonMetrics {
+
+    public static final String CREATE = "create";
+    public static final String IMPORT = "import";
+    public static final String CONTENT = "content";
+
+    private static final String SUCCESS = "success";
+    private static final String ERROR = "error";
+
+    private final MeterRegistry meterRegistry;
+
+    public LessonMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T, E extends Exception> T time(String operation, String stage, Stage<T, E> work) throws E {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = ERROR;
+        try {
+            T result = work.run();
+            outcome = SUCCESS;
+            return result;
+        } finally {
+            sample.stop(stageTimer(operation, stage, outcome));
+        }
+    }
+
+    public void time(String operation, String stage, Runnable work) {
+        time(operation, stage, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    // for stages measured by someone else, such as the analysis interleaved with an upload
+    public void record(String operation, String stage, long nanos) {
+        stageTimer(operation, stage, SUCCESS).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPayload(String operation, long bytes) {
+        DistributionSummary.builder("lesson.payload.size")
+                .baseUnit("bytes")
+                .tag("operation", operation)
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(bytes);
+    }
+
+    @FunctionalInterface
+    public interface Stage<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    private Timer stageTimer(String operation, String stage, String outcome) {
+        return Timer.builder("lesson.stage")
+                .tag("operation", operation)
+                .tag("stage", stage)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
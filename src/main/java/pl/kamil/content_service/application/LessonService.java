@@ -3,27 +3,50 @@ package pl.kamil.content_service.application;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import pl.kamil.content_service.application.event.LessonDeleteEvent;
+import pl.kamil.content_service.application.event.LessonsDeleteEvent;
+import pl.kamil.content_service.application.exception.FileProcessingException;
 import pl.kamil.content_service.application.exception.ForbiddenAccessException;
 import pl.kamil.content_service.application.exception.ResourceNotFoundException;
 import pl.kamil.content_service.application.port.out.FileStorage;
 import pl.kamil.content_service.shared.ErrorMessages;
-import pl.kamil.content_service.api.response.FileUploadResponse;
 import pl.kamil.content_service.api.response.LessonContentResponse;
 import pl.kamil.content_service.api.response.LessonResponse;
 import pl.kamil.content_service.api.response.PagedResponse;
+import pl.kamil.content_service.domain.BoundaryIndex;
 import pl.kamil.content_service.domain.Content;
+import pl.kamil.content_service.domain.ContentChunk;
+import pl.kamil.content_service.domain.ContentCodec;
+import pl.kamil.content_service.domain.ContentVersion;
 import pl.kamil.content_service.domain.Lesson;
+import pl.kamil.content_service.domain.LessonFileKey;
+import pl.kamil.content_service.domain.LessonSummary;
+import pl.kamil.content_service.domain.PageIndex;
+import pl.kamil.content_service.domain.PaginationUnit;
+import pl.kamil.content_service.infrastructure.ContentBoundariesRepository;
+import pl.kamil.content_service.infrastructure.ContentPageIndexRepository;
 import pl.kamil.content_service.infrastructure.LessonRepository;
-import pl.kamil.content_service.domain.TextAnalyzer;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 @Slf4j
@@ -32,62 +55,196 @@ import java.util.UUID;
 public class LessonService {
 
     private final LessonRepository lessonRepository;
+    private final ContentPageIndexRepository contentPageIndexRepository;
+    private final ContentBoundariesRepository contentBoundariesRepository;
+    private final ContentIndexes contentIndexes;
     private final FileStorage fileStorageClient;
     private final ApplicationEventPublisher eventPublisher;
+    private final LessonMetrics metrics;
+
+    // keeps the IN lists of bulk deletes at a size every database handles well
+    private static final int DELETE_CHUNK_SIZE = 500;
+
+    // above zero, texts are stored as chunk objects of about this many bytes, see ContentUploader
+    @Value("${file.storage.chunk-bytes:0}")
+    private int chunkBytes;
 
     @Transactional
     public LessonResponse createLesson(MultipartFile file, UUID userId) {
-        FileUploadResponse uploadResponse = null;
+        Content content = null;
         try {
-            uploadResponse = uploadFile(file);
-            Content content = createContentEntity(file, uploadResponse);
+            // includes the analysis running in the same pass, which is also recorded on its own
+            ContentUploader.Uploaded uploaded = metrics.time(LessonMetrics.CREATE, "upload", () -> uploadFile(file));
+            content = uploaded.content();
             Lesson lesson = createLessonEntity(file, content, userId);
-            return saveLesson(lesson);
+            return metrics.time(LessonMetrics.CREATE, "persist", () -> saveLesson(lesson, uploaded));
         } catch (Exception e) {
-            if (uploadResponse != null) {
-                cleanupS3(uploadResponse.s3Key());
+            if (content != null) {
+                List<String> fileKeys = content.fileKeys();
+                metrics.time(LessonMetrics.CREATE, "cleanup", () -> cleanupS3(fileKeys));
             }
             throw e;
         }
     }
 
     public LessonResponse getLesson(UUID lessonId, UUID userId) {
-        Lesson lesson = getLessonOrThrow(lessonId);
-        ensureOwnership(lesson, userId);
+        LessonSummary lesson = lessonRepository.findSummaryById(lessonId)
+                .orElseThrow(() -> new ResourceNotFoundException(ErrorMessages.LESSON_NOT_FOUND));
+        ensureOwnership(lesson.createdBy(), userId);
         return LessonResponse.from(lesson);
     }
 
     public PagedResponse<LessonResponse> getAllLessons(UUID userId, int pageNo, int pageSize) {
         Pageable pageable = PageRequest.of(pageNo, pageSize);
-        Page<Lesson> lessons = lessonRepository.findAllByCreatedBy(userId, pageable);
+        Page<LessonSummary> lessons = lessonRepository.findSummariesByCreatedBy(userId, pageable);
 
         Page<LessonResponse> lessonResponses = lessons.map(LessonResponse::from);
         return PagedResponse.from(lessonResponses);
     }
 
+    public PagedResponse<LessonResponse> getLessonsAfter(UUID userId, String cursor, int pageSize, boolean withTotal) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one");
+        }
+
+        // one extra row tells whether another page follows, without counting
+        Limit limit = Limit.of(pageSize + 1);
+        List<LessonSummary> lessons;
+        if (cursor == null || cursor.isBlank()) {
+            lessons = lessonRepository.findFirstByCreatedBy(userId, limit);
+        } else {
+            LessonCursor position = LessonCursor.decode(cursor);
+            lessons = lessonRepository.findNextByCreatedBy(userId, position.createdAt(), position.id(), limit);
+        }
+
+        boolean hasNext = lessons.size() > pageSize;
+        List<LessonSummary> page = hasNext ? lessons.subList(0, pageSize) : lessons;
+        String nextCursor = hasNext ? LessonCursor.of(page.get(page.size() - 1)).encode() : null;
+
+        long totalElements = withTotal ? lessonRepository.countByCreatedBy(userId) : -1;
+        int totalPages = withTotal ? (int) Math.ceil((double) totalElements / pageSize) : -1;
+
+        return new PagedResponse<>(
+                page.stream().map(LessonResponse::from).toList(),
+                0,
+                pageSize,
+                totalElements,
+                totalPages,
+                !hasNext,
+                nextCursor);
+    }
+
     @Transactional
     public void deleteLesson(UUID lessonId, UUID userId) {
-        Lesson lesson = getLessonOrThrow(lessonId);
-        ensureOwnership(lesson, userId);
-        String fileKey = lesson.getContent().getS3Key();
-        lessonRepository.delete(lesson);
+        List<LessonFileKey> files = lessonRepository.findFileKeysByIdAndCreatedBy(lessonId, userId);
+        if (files.isEmpty()) {
+            ensureOwnedLesson(lessonId, userId);
+        }
+        List<String> fileKeys = files.stream()
+                .map(LessonFileKey::s3Key)
+                .filter(Objects::nonNull)
+                .toList();
+        lessonRepository.deleteContentByLessonIdIn(List.of(lessonId));
+        lessonRepository.deleteByIdIn(List.of(lessonId));
 
         eventPublisher.publishEvent(
-                new LessonDeleteEvent(lesson.getId(), fileKey)
+                new LessonDeleteEvent(lessonId, fileKeys)
         );
     }
 
-    public LessonContentResponse getLessonContent(UUID lessonId, UUID userId, int pageNo, int pageSize) {
-        Lesson lesson = getLessonOrThrow(lessonId);
-        ensureOwnership(lesson, userId);
-        Content content = fetchContent(lesson);
-        String fileText =  fetchLessonTextFromS3(content);
-        PagedResponse<String> pagedResponse = TextPaginator.paginate(fileText, pageNo, pageSize);
-        return new LessonContentResponse(pagedResponse, content.getTotalWords());
+    @Transactional
+    public int deleteLessons(Collection<UUID> lessonIds, UUID userId) {
+        Set<UUID> ids = new HashSet<>(lessonIds);
+        List<LessonFileKey> lessons = lessonRepository.findFileKeysByIdIn(ids);
+        if (lessons.size() != ids.size()) {
+            throw new ResourceNotFoundException(ErrorMessages.LESSON_NOT_FOUND);
+        }
+        // all or nothing, a single foreign lesson rejects the whole request
+        lessons.forEach(lesson -> ensureOwnership(lesson.createdBy(), userId));
+        return deleteAll(lessons);
+    }
+
+    @Transactional
+    public int deleteLessonsOlderThan(Instant olderThan, UUID userId) {
+        List<LessonFileKey> lessons = lessonRepository.findFileKeysByCreatedByAndCreatedAtBefore(userId, olderThan);
+        return deleteAll(lessons);
+    }
+
+    // answers conditional requests for content before anything is read from storage
+    public ContentVersion getContentVersion(UUID lessonId, UUID userId) {
+        ContentVersion version = lessonRepository.findContentVersionById(lessonId)
+                .orElseThrow(() -> new ResourceNotFoundException(ErrorMessages.LESSON_NOT_FOUND));
+        ensureOwnership(version.createdBy(), userId);
+        if (version.contentId() == null) {
+            throw new ResourceNotFoundException(ErrorMessages.LESSON_CONTENT_NOT_FOUND);
+        }
+        return version;
+    }
+
+    public LessonContentResponse getLessonContent(
+            UUID lessonId, UUID userId, int pageNo, int pageSize, PaginationUnit unit) {
+        Content content = metrics.time(LessonMetrics.CONTENT, "lookup", () -> fetchContent(lessonId, userId));
+        PagePlan plan = planPage(content, unit, pageNo, pageSize);
+        String text = plan.reads().isEmpty() ? "" : fetch(() -> plan.reads().stream()
+                .map(read -> read(read, plan.codec()))
+                .collect(Collectors.joining()));
+        return new LessonContentResponse(paginate(() -> plan.respond(text)), content.getTotalWords());
+    }
+
+    /**
+     * Decides from the indexes which stored objects hold the page, shared with the reactive reads.
+     * Non-default character page sizes never need the page index, word and sentence pages only need it
+     * to locate the chunks of a chunked text.
+     */
+    public PagePlan planPage(Content content, PaginationUnit unit, int pageNo, int pageSize) {
+        if (unit == PaginationUnit.CHARS) {
+            PageIndex pageIndex = pageSize == TextPaginator.DEFAULT_PAGE_SIZE ? getPageIndex(content) : null;
+            return PagePlan.chars(content, pageIndex, pageNo, pageSize);
+        }
+        BoundaryIndex boundaries = getBoundaryIndex(content);
+        PageIndex pageIndex = content.isChunked() ? getPageIndex(content) : null;
+        return PagePlan.units(content, boundaries, pageIndex, unit, pageNo, pageSize);
     }
 
-    private FileUploadResponse uploadFile(MultipartFile file) {
-        return fileStorageClient.storeFile(file);
+    // looked up before the response starts, so a missing or foreign lesson still gets a proper 404 or 403
+    public Content getRawContent(UUID lessonId, UUID userId) {
+        return metrics.time(LessonMetrics.CONTENT, "lookup", () -> fetchContent(lessonId, userId));
+    }
+
+    /**
+     * Copies bytes {@code [offset, offset + length)} of the lesson text to {@code out}, chunk by chunk,
+     * never holding more than a copy buffer. A length running past the end copies up to the end.
+     */
+    public void writeRawContent(Content content, long offset, long length, OutputStream out) throws IOException {
+        metrics.time(LessonMetrics.CONTENT, "stream", () -> {
+            if (!content.isChunked()) {
+                fileStorageClient.copyFileContent(content.getS3Key(), content.getCodec(), offset, length, out);
+                return null;
+            }
+            PageIndex pageIndex = contentIndexes.pageIndex(content);
+            List<ContentChunk> chunks = content.getChunks();
+            long end = length > Long.MAX_VALUE - offset ? Long.MAX_VALUE : offset + length;
+            for (int i = 0; i < chunks.size(); i++) {
+                long chunkStart = pageIndex.byteStart(chunks.get(i).getFirstPage());
+                long chunkEnd = i + 1 < chunks.size() ? pageIndex.byteStart(chunks.get(i + 1).getFirstPage()) : Long.MAX_VALUE;
+                long from = Math.max(offset, chunkStart);
+                long to = Math.min(end, chunkEnd);
+                if (from < to) {
+                    fileStorageClient.copyFileContent(chunks.get(i).getS3Key(), content.getCodec(), from - chunkStart, to - from, out);
+                }
+            }
+            return null;
+        });
+    }
+
+    // the file is read once, the analyzer sees every byte on its way to storage
+    private ContentUploader.Uploaded uploadFile(MultipartFile file) {
+        try {
+            return new ContentUploader(fileStorageClient, chunkBytes, metrics, LessonMetrics.CREATE).upload(
+                    file.getOriginalFilename(), file.getContentType(), file.getSize(), file.getInputStream());
+        } catch (IOException e) {
+            throw new FileProcessingException(ErrorMessages.FILE_DECODE_FAILED, e);
+        }
     }
 
     private Lesson createLessonEntity(MultipartFile file, Content content, UUID userId) {
@@ -100,44 +257,91 @@ public class LessonService {
         return Lesson.create(filename, userId);
     }
 
-    private Content createContentEntity(MultipartFile file, FileUploadResponse uploadResponse) {
-        long totalWords = TextAnalyzer.countWordsInFile(file);
-        return Content.create(uploadResponse.s3Key(), totalWords);
-    }
-
-    private LessonResponse saveLesson(Lesson lesson) {
+    // the indexes take the id of the content, which is assigned when the lesson is saved
+    private LessonResponse saveLesson(Lesson lesson, ContentUploader.Uploaded uploaded) {
         Lesson saved = lessonRepository.save(lesson);
+        contentPageIndexRepository.save(uploaded.pageIndex());
+        contentBoundariesRepository.save(uploaded.boundaries());
         return LessonResponse.from(saved);
     }
 
-    private void cleanupS3(String s3Key) {
+    private void cleanupS3(List<String> s3Keys) {
         try {
-            fileStorageClient.deleteFile(s3Key);
+            if (s3Keys.size() == 1) {
+                fileStorageClient.deleteFile(s3Keys.get(0));
+            } else {
+                fileStorageClient.deleteFiles(s3Keys);
+            }
         } catch (Exception e) {
-            log.warn("Failed to cleanup S3 for key {}: {}", s3Key, e.getMessage() );
+            log.warn("Failed to cleanup S3 for keys {}: {}", s3Keys, e.getMessage() );
         }
     }
 
-    private Content fetchContent(Lesson lesson) {
-        Content content = lesson.getContent();
-        if (content == null) {
-            log.warn("Content not found for lesson with id: {}",lesson.getId());
-            throw new ResourceNotFoundException(ErrorMessages.LESSON_CONTENT_NOT_FOUND);
+    // content with its chunks in one statement, the lesson row itself is never loaded
+    private Content fetchContent(UUID lessonId, UUID userId) {
+        return lessonRepository.findContentByLessonIdAndCreatedBy(lessonId, userId).orElseThrow(() -> {
+            ensureOwnedLesson(lessonId, userId);
+            log.warn("Content not found for lesson with id: {}", lessonId);
+            return new ResourceNotFoundException(ErrorMessages.LESSON_CONTENT_NOT_FOUND);
+        });
+    }
+
+    private String fetch(LessonMetrics.Stage<String, RuntimeException> read) {
+        return metrics.time(LessonMetrics.CONTENT, "fetch", read);
+    }
+
+    private PagedResponse<String> paginate(LessonMetrics.Stage<PagedResponse<String>, RuntimeException> pagination) {
+        return metrics.time(LessonMetrics.CONTENT, "paginate", pagination);
+    }
+
+    private String read(PagePlan.Read read, ContentCodec codec) {
+        if (read.ranged()) {
+            return fileStorageClient.getFileContentRange(read.fileKey(), codec, read.byteStart(), read.byteLength());
         }
-        return content;
+        return read.cut(fileStorageClient.getFileContent(read.fileKey(), codec));
     }
 
-    private String fetchLessonTextFromS3(Content content) {
-        return fileStorageClient.getFileContent(content.getS3Key());
+    // null for lessons uploaded before page indexes had a table of their own
+    private PageIndex getPageIndex(Content content) {
+        return metrics.time(LessonMetrics.CONTENT, "index", () -> contentIndexes.pageIndex(content));
+    }
+
+    // null for lessons uploaded before boundaries were recorded
+    private BoundaryIndex getBoundaryIndex(Content content) {
+        return metrics.time(LessonMetrics.CONTENT, "boundaries", () -> contentIndexes.boundaryIndex(content));
+    }
+
+    private int deleteAll(List<LessonFileKey> lessons) {
+        if (lessons.isEmpty()) {
+            return 0;
+        }
+        List<UUID> ids = lessons.stream().map(LessonFileKey::lessonId).toList();
+        // chunked texts have further objects beyond the key on the content row
+        List<String> chunkKeys = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += DELETE_CHUNK_SIZE) {
+            List<UUID> chunk = ids.subList(from, Math.min(from + DELETE_CHUNK_SIZE, ids.size()));
+            chunkKeys.addAll(lessonRepository.findChunkKeysByLessonIdIn(chunk));
+            lessonRepository.deleteContentByLessonIdIn(chunk);
+            lessonRepository.deleteByIdIn(chunk);
+        }
+
+        List<String> fileKeys = Stream.concat(lessons.stream().map(LessonFileKey::s3Key), chunkKeys.stream())
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        eventPublisher.publishEvent(new LessonsDeleteEvent(ids, fileKeys));
+        return ids.size();
     }
 
-    private Lesson getLessonOrThrow(UUID lessonId) {
-        return lessonRepository.findById(lessonId)
+    // only reached when an owner-filtered query came back empty, to report 404 and 403 apart
+    private void ensureOwnedLesson(UUID lessonId, UUID userId) {
+        UUID ownerId = lessonRepository.findCreatedById(lessonId)
                 .orElseThrow(() -> new ResourceNotFoundException(ErrorMessages.LESSON_NOT_FOUND));
+        ensureOwnership(ownerId, userId);
     }
 
-    private void ensureOwnership(Lesson lesson, UUID userId) {
-        if (!lesson.getCreatedBy().equals(userId)) {
+    private void ensureOwnership(UUID ownerId, UUID userId) {
+        if (!ownerId.equals(userId)) {
             throw new ForbiddenAccessException(ErrorMessages.ACCESS_DENIED);
         }
     }
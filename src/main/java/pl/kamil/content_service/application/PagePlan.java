@@ -0,0 +1,142 @@
+package pl.kamil.content_service.application;
+
+import pl.kamil.content_service.api.response.PagedResponse;
+import pl.kamil.content_service.domain.BoundaryIndex;
+import pl.kamil.content_service.domain.Content;
+import pl.kamil.content_service.domain.ContentChunk;
+import pl.kamil.content_service.domain.ContentCodec;
+import pl.kamil.content_service.domain.PageIndex;
+import pl.kamil.content_service.domain.PaginationUnit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * How one content page is read, decided from the indexes alone: which stored objects, or which byte
+ * range of one, hold the page, and how the text read from them, joined in order, becomes the page.
+ * The blocking and the reactive content reads both carry out plans made here, each with its own
+ * storage client, so pages are cut the same way whichever endpoint serves them.
+ */
+public final class PagePlan {
+
+    private final ContentCodec codec;
+    private final List<Read> reads;
+    private final Function<String, PagedResponse<String>> respond;
+
+    private PagePlan(ContentCodec codec, List<Read> reads, Function<String, PagedResponse<String>> respond) {
+        this.codec = codec;
+        this.reads = reads;
+        this.respond = respond;
+    }
+
+    /**
+     * A page of {@code pageSize} characters. The page index is only used when it was built for that
+     * page size; without it the whole text is read and cut on the fly.
+     */
+    static PagePlan chars(Content content, PageIndex pageIndex, int pageNo, int pageSize) {
+        if (pageIndex == null || !pageIndex.covers(pageSize)) {
+            return new PagePlan(content.getCodec(), wholeText(content),
+                    text -> TextPaginator.paginate(text, pageNo, pageSize));
+        }
+        if (!pageIndex.contains(pageNo)) {
+            return nothing(content, text -> TextPaginator.page(text, pageIndex, pageNo));
+        }
+        Function<String, PagedResponse<String>> respond = pageText -> TextPaginator.page(pageText, pageIndex, pageNo);
+        if (content.isChunked()) {
+            // one small object per page view whatever the lesson size, and a hot chunk serves its neighbours from cache
+            ContentChunk chunk = content.chunkOf(pageNo);
+            int chunkStart = pageIndex.start(chunk.getFirstPage());
+            Read read = Read.slice(chunk.getS3Key(), pageIndex.start(pageNo) - chunkStart, pageIndex.end(pageNo) - chunkStart);
+            return new PagePlan(content.getCodec(), List.of(read), respond);
+        }
+        Read read = Read.range(content.getS3Key(), pageIndex.byteStart(pageNo), pageIndex.byteLength(pageNo));
+        return new PagePlan(content.getCodec(), List.of(read), respond);
+    }
+
+    /**
+     * A page of {@code pageSize} words or sentences. Chunked texts also need the page index, which
+     * locates the chunks; without either index the whole text is read and scanned on the fly.
+     */
+    static PagePlan units(
+            Content content, BoundaryIndex boundaries, PageIndex pageIndex, PaginationUnit unit, int pageNo, int pageSize) {
+        if (boundaries == null || (content.isChunked() && pageIndex == null)) {
+            return new PagePlan(content.getCodec(), wholeText(content), text -> TextPaginator.paginate(
+                    text, boundaries != null ? boundaries : BoundaryIndex.build(text), unit, pageNo, pageSize));
+        }
+        Function<String, PagedResponse<String>> respond =
+                pageText -> TextPaginator.page(pageText, boundaries, unit, pageNo, pageSize);
+        if (!boundaries.contains(unit, pageSize, pageNo)) {
+            return nothing(content, respond);
+        }
+        if (!content.isChunked()) {
+            Read read = Read.range(
+                    content.getS3Key(),
+                    boundaries.byteStart(unit, pageSize, pageNo),
+                    boundaries.byteLength(unit, pageSize, pageNo));
+            return new PagePlan(content.getCodec(), List.of(read), respond);
+        }
+
+        // a page of words or sentences may run across a chunk border, only the chunks it touches are read
+        int start = boundaries.start(unit, pageSize, pageNo);
+        int end = boundaries.end(unit, pageSize, pageNo);
+        List<ContentChunk> chunks = content.getChunks();
+        List<Read> reads = new ArrayList<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            int chunkStart = pageIndex.start(chunks.get(i).getFirstPage());
+            int chunkEnd = i + 1 < chunks.size() ? pageIndex.start(chunks.get(i + 1).getFirstPage()) : Integer.MAX_VALUE;
+            int from = Math.max(start, chunkStart);
+            int to = Math.min(end, chunkEnd);
+            if (from < to) {
+                reads.add(Read.slice(chunks.get(i).getS3Key(), from - chunkStart, to - chunkStart));
+            }
+        }
+        return new PagePlan(content.getCodec(), reads, respond);
+    }
+
+    public ContentCodec codec() {
+        return codec;
+    }
+
+    // empty when the page lies past the end of the text, nothing needs to be read then
+    public List<Read> reads() {
+        return reads;
+    }
+
+    // the page made of the texts of all reads, joined in their order
+    public PagedResponse<String> respond(String text) {
+        return respond.apply(text);
+    }
+
+    private static PagePlan nothing(Content content, Function<String, PagedResponse<String>> respond) {
+        return new PagePlan(content.getCodec(), List.of(), respond);
+    }
+
+    private static List<Read> wholeText(Content content) {
+        return content.fileKeys().stream().map(Read::whole).toList();
+    }
+
+    /**
+     * One stored object: either bytes {@code [byteStart, byteStart + byteLength)} of it, taken as they
+     * are, or the whole object, of whose text the characters {@code [from, to)} belong to the page.
+     */
+    public record Read(String fileKey, boolean ranged, long byteStart, int byteLength, int from, int to) {
+
+        static Read range(String fileKey, long byteStart, int byteLength) {
+            return new Read(fileKey, true, byteStart, byteLength, 0, -1);
+        }
+
+        static Read slice(String fileKey, int from, int to) {
+            return new Read(fileKey, false, 0, 0, from, to);
+        }
+
+        static Read whole(String fileKey) {
+            return new Read(fileKey, false, 0, 0, 0, -1);
+        }
+
+        // the part of what was read that belongs to the page
+        public String cut(String text) {
+            return to < 0 ? text : text.substring(from, to);
+        }
+    }
+}
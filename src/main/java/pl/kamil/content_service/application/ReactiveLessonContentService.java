@@ -0,0 +1,103 @@
+package pl.kamil.content_service.application;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Service;
+import pl.kamil.content_service.api.response.LessonContentResponse;
+import pl.kamil.content_service.application.port.out.ReactiveFileStorage;
+import pl.kamil.content_service.domain.Content;
+import pl.kamil.content_service.domain.PaginationUnit;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Content reads that hold no thread while the file service answers. The lesson is looked up and its
+ * ownership checked on the caller's thread, before anything is returned, so errors are reported as
+ * for the blocking endpoints; only storage reads are left to the returned publishers.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "file.storage.client", havingValue = "webclient")
+public class ReactiveLessonContentService {
+
+    private final LessonService lessonService;
+    private final ReactiveFileStorage fileStorage;
+
+    public Mono<LessonContentResponse> getLessonContent(
+            UUID lessonId, UUID userId, int pageNo, int pageSize, PaginationUnit unit) {
+        Content content = lessonService.getRawContent(lessonId, userId);
+        PagePlan plan = lessonService.planPage(content, unit, pageNo, pageSize);
+        return read(plan)
+                .map(plan::respond)
+                .map(page -> new LessonContentResponse(page, content.getTotalWords()));
+    }
+
+    // the whole text in pieces as it arrives, chunk after chunk
+    public Flux<String> getRawContent(UUID lessonId, UUID userId) {
+        Content content = lessonService.getRawContent(lessonId, userId);
+        List<String> fileKeys = content.fileKeys();
+        List<Flux<DataBuffer>> objects = fileKeys.stream()
+                .map(fileKey -> fileStorage.readFileContent(fileKey, content.getCodec(), 0, Long.MAX_VALUE))
+                .toList();
+        return utf8(Flux.concat(objects));
+    }
+
+    // objects of a plan are downloaded concurrently and joined in order
+    private Mono<String> read(PagePlan plan) {
+        if (plan.reads().isEmpty()) {
+            return Mono.just("");
+        }
+        List<Mono<String>> texts = plan.reads().stream()
+                .map(read -> read.ranged()
+                        ? fileStorage.readFileTextRange(read.fileKey(), plan.codec(), read.byteStart(), read.byteLength())
+                        : fileStorage.readFileText(read.fileKey(), plan.codec()).map(read::cut))
+                .toList();
+        return Flux.mergeSequential(texts).collect(Collectors.joining());
+    }
+
+    // a character split between two buffers is held back and completed by the next one
+    static Flux<String> utf8(Flux<DataBuffer> buffers) {
+        return Flux.defer(() -> {
+            byte[][] pending = {new byte[0]};
+            return buffers
+                    .map(buffer -> {
+                        byte[] bytes = new byte[pending[0].length + buffer.readableByteCount()];
+                        try {
+                            System.arraycopy(pending[0], 0, bytes, 0, pending[0].length);
+                            buffer.read(bytes, pending[0].length, buffer.readableByteCount());
+                        } finally {
+                            DataBufferUtils.release(buffer);
+                        }
+                        int complete = completeLength(bytes);
+                        pending[0] = Arrays.copyOfRange(bytes, complete, bytes.length);
+                        return new String(bytes, 0, complete, StandardCharsets.UTF_8);
+                    })
+                    .concatWith(Mono.fromSupplier(() -> new String(pending[0], StandardCharsets.UTF_8)))
+                    .filter(text -> !text.isEmpty());
+        });
+    }
+
+    // length of the longest prefix that ends on a character boundary
+    private static int completeLength(byte[] bytes) {
+        int length = bytes.length;
+        for (int i = length - 1; i >= Math.max(0, length - 3); i--) {
+            int b = bytes[i] & 0xFF;
+            if (b < 0x80) {
+                return length;
+            }
+            if (b >= 0xC0) {
+                int sequence = b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : 2;
+                return i + sequence <= length ? length : i;
+            }
+        }
+        return length;
+    }
+}
@@ -1,36 +1,91 @@
 package pl.kamil.content_service.application;
 
 import pl.kamil.content_service.api.response.PagedResponse;
+import pl.kamil.content_service.domain.BoundaryIndex;
+import pl.kamil.content_service.domain.PageIndex;
+import pl.kamil.content_service.domain.PaginationUnit;
 
 import java.util.List;
 
 public class TextPaginator {
-    public static PagedResponse<String> paginate(String fileText, int pageNo, int pageSize) {
-
-        int totalLength = fileText.length();
-        int totalPages = (int) Math.ceil((double) totalLength / pageSize);
 
+    // page size the index is precomputed for at ingest, matches the content endpoint default
+    public static final int DEFAULT_PAGE_SIZE = 30;
 
-        int start = Math.min(pageNo * pageSize, totalLength);
-        int end = Math.min(start + pageSize, totalLength);
+    public static PagedResponse<String> paginate(String fileText, int pageNo, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
 
-        // round to the nearest space to not split words in half
-        if (end < totalLength) {
-            int nextSpace = fileText.indexOf(" ", end);
-            if (nextSpace != -1 && nextSpace < end + 20) {
-                end = nextSpace;
+        // cut exactly as at ingest, so pages never overlap; only the requested page is copied, the
+        // pages after it are hopped over without allocating anything, so totalPages counts those really produced
+        String chunk = "";
+        int totalPages = 0;
+        int start = 0;
+        while (start < fileText.length()) {
+            int end = PageIndex.pageEnd(fileText, start, pageSize);
+            if (totalPages == pageNo) {
+                chunk = fileText.substring(start, end);
             }
+            totalPages++;
+            start = end;
         }
 
-        String chunk = fileText.substring(start, end).trim();
-        boolean hasNext = end < totalLength;
+        return new PagedResponse<>(
+                List.of(chunk.trim()),
+                pageNo,
+                pageSize,
+                fileText.length(),
+                totalPages,
+                pageNo >= totalPages - 1);
+    }
+
+    public static PagedResponse<String> paginate(String fileText, PageIndex pageIndex, int pageNo) {
+
+        // page boundaries come from the index, so only the requested page is copied
+        String chunk = pageIndex.contains(pageNo)
+                ? fileText.substring(pageIndex.start(pageNo), pageIndex.end(pageNo))
+                : "";
+
+        return page(chunk, pageIndex, pageNo);
+    }
+
+    // wraps text already cut to the boundaries of page pageNo
+    public static PagedResponse<String> page(String pageText, PageIndex pageIndex, int pageNo) {
+
+        int totalPages = pageIndex.pageCount();
+
+        return new PagedResponse<>(
+                List.of(pageText.trim()),
+                pageNo,
+                pageIndex.getPageSize(),
+                pageIndex.textLength(),
+                totalPages,
+                pageNo >= totalPages - 1);
+    }
+
+    public static PagedResponse<String> paginate(
+            String fileText, BoundaryIndex boundaries, PaginationUnit unit, int pageNo, int pageSize) {
+
+        String chunk = boundaries.contains(unit, pageSize, pageNo)
+                ? fileText.substring(boundaries.start(unit, pageSize, pageNo), boundaries.end(unit, pageSize, pageNo))
+                : "";
+
+        return page(chunk, boundaries, unit, pageNo, pageSize);
+    }
+
+    // wraps text already cut to page pageNo of pageSize words or sentences; totals count those units
+    public static PagedResponse<String> page(
+            String pageText, BoundaryIndex boundaries, PaginationUnit unit, int pageNo, int pageSize) {
+
+        int totalPages = boundaries.pageCount(unit, pageSize);
 
         return new PagedResponse<>(
-                List.of(chunk),
+                List.of(pageText.trim()),
                 pageNo,
                 pageSize,
-                totalLength,
+                boundaries.count(unit),
                 totalPages,
-                !hasNext);
+                pageNo >= totalPages - 1);
     }
 }
@@ -1,6 +1,7 @@
 package pl.kamil.content_service.application.event;
 
+import java.util.List;
 import java.util.UUID;
 
-public record LessonDeleteEvent(UUID lessonId, String s3Key) {
+public record LessonDeleteEvent(UUID lessonId, List<String> s3Keys) {
 }
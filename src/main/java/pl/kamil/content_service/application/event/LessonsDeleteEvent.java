@@ -0,0 +1,7 @@
+package pl.kamil.content_service.application.event;
+
+import java.util.List;
+import java.util.UUID;
+
+public record LessonsDeleteEvent(List<UUID> lessonIds, List<String> s3Keys) {
+}
@@ -1,11 +1,33 @@
 package pl.kamil.content_service.application.port.out;
 
-import org.springframework.web.multipart.MultipartFile;
-import pl.kamil.content_service.api.response.FileUploadResponse;
+import pl.kamil.content_service.domain.ContentCodec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
 
 public interface FileStorage {
 
-    FileUploadResponse storeFile(MultipartFile file);
+    StoredFile storeFile(FileUpload upload);
     void deleteFile(String key);
-    String getFileContent(String fileKey);
+
+    /**
+     * Deletes all given objects. Keys that no longer exist are ignored, so a failed call can be retried as a whole.
+     */
+    void deleteFiles(Collection<String> keys);
+
+    String getFileContent(String fileKey, ContentCodec codec);
+
+    /**
+     * Reads {@code length} bytes of the UTF-8 text starting at byte {@code offset}, counted in the
+     * decoded text. Offsets must fall on character boundaries.
+     */
+    String getFileContentRange(String fileKey, ContentCodec codec, long offset, int length);
+
+    /**
+     * Copies up to {@code length} bytes of the decoded text, starting at byte {@code offset}, to {@code out}
+     * through a fixed buffer. Storage failures are thrown as {@link pl.kamil.content_service.infrastructure.exception.FileStorageException},
+     * an {@link IOException} means {@code out} could not be written to.
+     */
+    void copyFileContent(String fileKey, ContentCodec codec, long offset, long length, OutputStream out) throws IOException;
 }
@@ -0,0 +1,9 @@
+package pl.kamil.content_service.application.port.out;
+
+import java.io.InputStream;
+
+/**
+ * A file to store, read exactly once from {@code content}. {@code size} is its length in bytes.
+ */
+public record FileUpload(String filename, String contentType, long size, InputStream content) {
+}
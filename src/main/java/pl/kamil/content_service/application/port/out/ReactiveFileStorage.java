@@ -0,0 +1,50 @@
+package pl.kamil.content_service.application.port.out;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import pl.kamil.content_service.domain.ContentCodec;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Non-blocking reads of stored lesson texts. Nothing waits on a thread while the file service answers,
+ * so a few threads can keep many slow downloads in flight. The caller's token is taken when a method
+ * is called, not when the result is subscribed to.
+ */
+public interface ReactiveFileStorage {
+
+    /**
+     * Up to {@code length} bytes of the decoded text starting at byte {@code offset}, as they arrive.
+     * Subscribers must release the buffers.
+     */
+    Flux<DataBuffer> readFileContent(String fileKey, ContentCodec codec, long offset, long length);
+
+    default Mono<String> readFileText(String fileKey, ContentCodec codec) {
+        return join(readFileContent(fileKey, codec, 0, Long.MAX_VALUE));
+    }
+
+    /**
+     * Reads {@code length} bytes of the UTF-8 text starting at byte {@code offset}, counted in the
+     * decoded text. Offsets must fall on character boundaries.
+     */
+    default Mono<String> readFileTextRange(String fileKey, ContentCodec codec, long offset, int length) {
+        if (length <= 0) {
+            return Mono.just("");
+        }
+        return join(readFileContent(fileKey, codec, offset, length));
+    }
+
+    private static Mono<String> join(Flux<DataBuffer> buffers) {
+        return DataBufferUtils.join(buffers)
+                .map(buffer -> {
+                    try {
+                        return buffer.toString(StandardCharsets.UTF_8);
+                    } finally {
+                        DataBufferUtils.release(buffer);
+                    }
+                })
+                .defaultIfEmpty("");
+    }
+}
@@ -0,0 +1,13 @@
+package pl.kamil.content_service.application.port.out;
+
+import pl.kamil.content_service.domain.ContentCodec;
+
+/**
+ * A file as stored: the key to read it back with and the codec its bytes are stored in.
+ */
+public record StoredFile(String s3Key, ContentCodec codec) {
+
+    public StoredFile(String s3Key) {
+        this(s3Key, ContentCodec.IDENTITY);
+    }
+}
@@ -0,0 +1,87 @@
+package pl.kamil.content_service.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import pl.kamil.content_service.application.port.out.FileStorage;
+import pl.kamil.content_service.infrastructure.CachingFileStorage;
+import pl.kamil.content_service.infrastructure.CircuitBreaker;
+import pl.kamil.content_service.infrastructure.CoalescingFileStorage;
+import pl.kamil.content_service.infrastructure.FileStorageClient;
+import pl.kamil.content_service.infrastructure.MeteredFileStorage;
+import pl.kamil.content_service.infrastructure.ResilientFileStorage;
+import pl.kamil.content_service.infrastructure.TextCache;
+import pl.kamil.content_service.infrastructure.WebClientFileStorage;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class FileStorageConfig {
+
+    @Bean
+    @Primary
+    public FileStorage fileStorage(
+            FileStorageClient fileStorageClient,
+            // present with file.storage.client=webclient, see ReactiveFileStorageConfig
+            ObjectProvider<WebClientFileStorage> webClientFileStorage,
+            MeterRegistry meterRegistry,
+            @Qualifier("fileStorageHedgeExecutor") ExecutorService hedgeExecutor,
+            CircuitBreaker fileStorageCircuitBreaker,
+            ObjectProvider<TextCache> textCache,
+            @Value("${file.storage.hedge.enabled:true}") boolean hedgeEnabled,
+            @Value("${file.storage.hedge.percentile:0.95}") double hedgePercentile,
+            @Value("${file.storage.hedge.min-delay:20ms}") Duration hedgeMinDelay,
+            @Value("${file.storage.hedge.max-delay:500ms}") Duration hedgeMaxDelay) {
+
+        FileStorage base = webClientFileStorage.getIfAvailable();
+        if (base == null) {
+            base = fileStorageClient;
+        }
+        // metered below the cache, so hits never show up as storage calls; each hedged attempt is metered
+        FileStorage storage = new MeteredFileStorage(base, meterRegistry);
+        storage = new ResilientFileStorage(
+                storage,
+                fileStorageCircuitBreaker,
+                hedgeEnabled ? hedgeExecutor : null,
+                () -> new ResilientFileStorage.HedgeDelay(hedgePercentile, hedgeMinDelay, hedgeMaxDelay),
+                meterRegistry);
+        // a burst of readers of one lesson shares a single download, ahead of hedging and the breaker
+        storage = new CoalescingFileStorage(storage, meterRegistry);
+        TextCache cache = textCache.getIfAvailable();
+        if (cache == null) {
+            return storage;
+        }
+        return new CachingFileStorage(storage, cache);
+    }
+
+    // one breaker for the one file service, whichever client stack reaches it
+    @Bean
+    public CircuitBreaker fileStorageCircuitBreaker(
+            @Value("${file.storage.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${file.storage.circuit-breaker.open-duration:10s}") Duration openDuration) {
+        return new CircuitBreaker(failureThreshold, openDuration);
+    }
+
+    // shared with the reactive stack, so a delete through the blocking one invalidates both
+    @Bean
+    @ConditionalOnProperty(name = "file.storage.cache.enabled", havingValue = "true", matchIfMissing = true)
+    public TextCache textCache(
+            MeterRegistry meterRegistry,
+            @Value("${file.storage.cache.max-bytes:67108864}") long cacheMaxBytes) {
+        return new TextCache(cacheMaxBytes, meterRegistry);
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService fileStorageHedgeExecutor() {
+        // attempts only wait on the network; they read on behalf of the caller, so they need its JWT
+        return new DelegatingSecurityContextExecutorService(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
@@ -0,0 +1,30 @@
+package pl.kamil.content_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Connection pools toward the file service. Uploads are few, large and slow, reads and deletes
+ * are many and small, so each gets its own pool and timeouts and one cannot starve the other.
+ */
+@ConfigurationProperties(prefix = "file.storage.http")
+public record FileStorageHttpProperties(
+        @DefaultValue Pool upload,
+        @DefaultValue Pool download) {
+
+    public record Pool(
+            @DefaultValue("50") int maxConnections,
+            // time to establish the TCP connection
+            @DefaultValue("2s") Duration connectTimeout,
+            // max silence between response bytes, a hung request fails instead of holding the thread
+            @DefaultValue("10s") Duration responseTimeout,
+            // max wait for a free pooled connection
+            @DefaultValue("2s") Duration poolTimeout,
+            // idle keep-alive connections are closed after this
+            @DefaultValue("30s") Duration idleTimeout,
+            // connections are recycled after this regardless of use
+            @DefaultValue("5m") Duration timeToLive) {
+    }
+}
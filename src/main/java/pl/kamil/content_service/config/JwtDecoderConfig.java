@@ -0,0 +1,142 @@
+package pl.kamil.content_service.config;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.KeyType;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.DefaultResourceRetriever;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.OAuth2ResourceServerProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.SupplierJwtDecoder;
+import org.springframework.web.client.RestClient;
+import pl.kamil.content_service.infrastructure.CachingJwtDecoder;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Configuration
+public class JwtDecoderConfig {
+
+    @Bean
+    public JwtDecoder jwtDecoder(
+            OAuth2ResourceServerProperties properties,
+            MeterRegistry meterRegistry,
+            RestClient.Builder restClientBuilder,
+            @Value("${security.jwt.cache.max-entries:10000}") int cacheMaxEntries,
+            @Value("${security.jwt.cache.max-ttl:5m}") Duration cacheMaxTtl,
+            @Value("${security.jwt.jwk-set.ttl:15m}") Duration jwkSetTtl,
+            @Value("${security.jwt.jwk-set.refresh-ahead:1m}") Duration jwkSetRefreshAhead,
+            @Value("${security.jwt.jwk-set.outage-tolerance:1h}") Duration jwkSetOutageTolerance,
+            @Value("${security.jwt.http.connect-timeout:1s}") Duration connectTimeout,
+            @Value("${security.jwt.http.read-timeout:2s}") Duration readTimeout) {
+
+        OAuth2ResourceServerProperties.Jwt jwt = properties.getJwt();
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeout);
+        requestFactory.setReadTimeout(readTimeout);
+        RestClient discoveryClient = restClientBuilder.requestFactory(requestFactory).build();
+        DefaultResourceRetriever jwkSetRetriever = new DefaultResourceRetriever(
+                (int) connectTimeout.toMillis(), (int) readTimeout.toMillis(), JWKSourceBuilder.DEFAULT_HTTP_SIZE_LIMIT);
+
+        // built on the first request, so the service starts while the auth service is still down
+        JwtDecoder verifying = new SupplierJwtDecoder(() -> {
+            JWKSource<SecurityContext> jwkSource = JWKSourceBuilder.create(jwkSetUrl(jwt, discoveryClient), jwkSetRetriever)
+                    .cache(jwkSetTtl.toMillis(), JWKSourceBuilder.DEFAULT_CACHE_REFRESH_TIMEOUT)
+                    // reloaded in the background before it expires, requests never wait for the auth service
+                    .refreshAheadCache(jwkSetRefreshAhead.toMillis(), true)
+                    // the last good keys keep verifying tokens while the auth service is unreachable
+                    .outageTolerant(jwkSetOutageTolerance.toMillis())
+                    .build();
+            // as Spring Boot does: configured algorithms go with a configured JWK set, an issuer's keys tell their own
+            Set<JWSAlgorithm> algorithms = jwt.getJwkSetUri() != null
+                    ? jwt.getJwsAlgorithms().stream().map(JWSAlgorithm::parse).collect(Collectors.toSet())
+                    : signatureAlgorithms(jwkSource);
+
+            DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+            processor.setJWSKeySelector(new JWSVerificationKeySelector<>(algorithms, jwkSource));
+            // expiry and issuer are checked by the Spring validators below
+            processor.setJWTClaimsSetVerifier((claims, context) -> {
+            });
+
+            NimbusJwtDecoder decoder = new NimbusJwtDecoder(processor);
+            decoder.setJwtValidator(jwt.getIssuerUri() != null
+                    ? JwtValidators.createDefaultWithIssuer(jwt.getIssuerUri())
+                    : JwtValidators.createDefault());
+            return decoder;
+        });
+        return new CachingJwtDecoder(verifying, cacheMaxEntries, cacheMaxTtl, meterRegistry);
+    }
+
+    // the configured JWK set, otherwise the one the issuer advertises
+    private static URL jwkSetUrl(OAuth2ResourceServerProperties.Jwt jwt, RestClient discoveryClient) {
+        String jwkSetUri = jwt.getJwkSetUri();
+        if (jwkSetUri == null) {
+            Map<?, ?> configuration = discoveryClient
+                    .get()
+                    .uri(jwt.getIssuerUri() + "/.well-known/openid-configuration")
+                    .retrieve()
+                    .body(Map.class);
+            if (configuration == null || !(configuration.get("jwks_uri") instanceof String advertised)) {
+                throw new IllegalStateException("Issuer " + jwt.getIssuerUri() + " does not advertise a JWK set");
+            }
+            jwkSetUri = advertised;
+        }
+        try {
+            return URI.create(jwkSetUri).toURL();
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException("Invalid JWK set URI: " + jwkSetUri, e);
+        }
+    }
+
+    // the algorithms the published signing keys declare, or their key type's family when they declare none
+    private static Set<JWSAlgorithm> signatureAlgorithms(JWKSource<SecurityContext> jwkSource) {
+        JWKMatcher signingKeys = new JWKMatcher.Builder()
+                .publicOnly(true)
+                .keyUses(KeyUse.SIGNATURE, null)
+                .keyTypes(KeyType.RSA, KeyType.EC)
+                .build();
+        List<JWK> keys;
+        try {
+            keys = jwkSource.get(new JWKSelector(signingKeys), null);
+        } catch (KeySourceException e) {
+            throw new IllegalStateException("Failed to load the JWK set", e);
+        }
+
+        Set<JWSAlgorithm> algorithms = new HashSet<>();
+        for (JWK key : keys) {
+            if (key.getAlgorithm() != null) {
+                algorithms.add(JWSAlgorithm.parse(key.getAlgorithm().getName()));
+            } else if (KeyType.RSA.equals(key.getKeyType())) {
+                algorithms.addAll(JWSAlgorithm.Family.RSA);
+            } else if (KeyType.EC.equals(key.getKeyType())) {
+                algorithms.addAll(JWSAlgorithm.Family.EC);
+            }
+        }
+        if (algorithms.isEmpty()) {
+            throw new IllegalStateException("The JWK set has no signing keys");
+        }
+        return algorithms;
+    }
+}
@@ -0,0 +1,33 @@
+package pl.kamil.content_service.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class LessonImportConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService lessonImportExecutor(@Value("${lesson.import.parallelism:4}") int parallelism) {
+        // a full queue makes the submitting request thread run the task itself,
+        // which throttles how many archive entries are buffered at once
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                parallelism,
+                parallelism,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(parallelism),
+                new CustomizableThreadFactory("lesson-import-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+
+        // tasks upload on behalf of the caller, so they need its JWT for the token relay
+        return new DelegatingSecurityContextExecutorService(executor);
+    }
+}
@@ -0,0 +1,81 @@
+package pl.kamil.content_service.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import pl.kamil.content_service.application.port.out.ReactiveFileStorage;
+import pl.kamil.content_service.domain.ContentCodec;
+import pl.kamil.content_service.infrastructure.CachingReactiveFileStorage;
+import pl.kamil.content_service.infrastructure.CircuitBreaker;
+import pl.kamil.content_service.infrastructure.CoalescingReactiveFileStorage;
+import pl.kamil.content_service.infrastructure.MeteredReactiveFileStorage;
+import pl.kamil.content_service.infrastructure.ResilientReactiveFileStorage;
+import pl.kamil.content_service.infrastructure.TextCache;
+import pl.kamil.content_service.infrastructure.WebClientFileStorage;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+@Configuration
+@ConditionalOnProperty(name = "file.storage.client", havingValue = "webclient")
+public class ReactiveFileStorageConfig {
+
+    // sized like the download pool of the blocking client; waiting for a connection holds no thread
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider fileStorageConnectionProvider(FileStorageHttpProperties properties) {
+        FileStorageHttpProperties.Pool pool = properties.download();
+        return ConnectionProvider.builder("file-storage")
+                .maxConnections(pool.maxConnections())
+                .pendingAcquireTimeout(pool.poolTimeout())
+                .maxIdleTime(pool.idleTimeout())
+                .maxLifeTime(pool.timeToLive())
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public WebClientFileStorage webClientFileStorage(
+            WebClient.Builder builder,
+            ConnectionProvider fileStorageConnectionProvider,
+            FileStorageHttpProperties properties,
+            @Value("${file.upload.url}") String fileUploadUrl,
+            @Value("${file.storage.batch-delete.enabled:false}") boolean batchDeleteEnabled,
+            @Value("${file.storage.codec:IDENTITY}") ContentCodec codec) {
+
+        FileStorageHttpProperties.Pool pool = properties.download();
+        HttpClient httpClient = HttpClient.create(fileStorageConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) pool.connectTimeout().toMillis())
+                .responseTimeout(pool.responseTimeout());
+        // the Boot builder brings the http.client.requests observations
+        WebClient webClient = builder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        return new WebClientFileStorage(
+                webClient, fileUploadUrl, batchDeleteEnabled, codec, properties.upload().responseTimeout());
+    }
+
+    // the decorators of FileStorageConfig.fileStorage in the same order, sharing its breaker and cache
+    @Bean
+    @Primary
+    public ReactiveFileStorage reactiveFileStorage(
+            WebClientFileStorage webClientFileStorage,
+            CircuitBreaker fileStorageCircuitBreaker,
+            ObjectProvider<TextCache> textCache,
+            MeterRegistry meterRegistry) {
+
+        ReactiveFileStorage storage = new MeteredReactiveFileStorage(webClientFileStorage, meterRegistry);
+        storage = new ResilientReactiveFileStorage(storage, fileStorageCircuitBreaker, meterRegistry);
+        storage = new CoalescingReactiveFileStorage(storage, meterRegistry);
+        TextCache cache = textCache.getIfAvailable();
+        if (cache == null) {
+            return storage;
+        }
+        return new CachingReactiveFileStorage(storage, cache);
+    }
+}
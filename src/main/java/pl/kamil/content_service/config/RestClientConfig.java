@@ -1,17 +1,91 @@
 package pl.kamil.content_service.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
+import pl.kamil.content_service.infrastructure.InstrumentedConnectionManager;
+import pl.kamil.content_service.infrastructure.TimeoutMetricsExecHandler;
 import pl.kamil.content_service.infrastructure.TokenRelayInterceptor;
 
+import java.time.Duration;
+
 @Configuration
+@EnableConfigurationProperties(FileStorageHttpProperties.class)
 public class RestClientConfig {
 
     @Bean
-    public RestClient restClient(RestClient.Builder builder) {
+    public CloseableHttpClient fileUploadHttpClient(FileStorageHttpProperties properties, MeterRegistry meterRegistry) {
+        return pooledHttpClient("upload", properties.upload(), meterRegistry);
+    }
+
+    @Bean
+    public CloseableHttpClient fileDownloadHttpClient(FileStorageHttpProperties properties, MeterRegistry meterRegistry) {
+        return pooledHttpClient("download", properties.download(), meterRegistry);
+    }
+
+    @Bean
+    public RestClient fileUploadRestClient(
+            RestClient.Builder builder,
+            @Qualifier("fileUploadHttpClient") CloseableHttpClient httpClient) {
+        return fileStorageRestClient(builder, httpClient);
+    }
+
+    @Bean
+    public RestClient fileDownloadRestClient(
+            RestClient.Builder builder,
+            @Qualifier("fileDownloadHttpClient") CloseableHttpClient httpClient) {
+        return fileStorageRestClient(builder, httpClient);
+    }
+
+    private RestClient fileStorageRestClient(RestClient.Builder builder, CloseableHttpClient httpClient) {
+        // no interceptors: they make RestClient buffer request bodies, and uploads are streamed.
+        // initializers run on the calling thread, so the relayed token comes from the request's security context
         return builder
-                .requestInterceptor(new TokenRelayInterceptor())
+                .requestFactory(new HttpComponentsClientHttpRequestFactory(httpClient))
+                .requestInitializer(new TokenRelayInterceptor())
                 .build();
     }
+
+    private CloseableHttpClient pooledHttpClient(
+            String poolName, FileStorageHttpProperties.Pool pool, MeterRegistry meterRegistry) {
+        InstrumentedConnectionManager connectionManager = new InstrumentedConnectionManager(poolName, meterRegistry);
+        // all traffic goes to the single file service route
+        connectionManager.setMaxTotal(pool.maxConnections());
+        connectionManager.setDefaultMaxPerRoute(pool.maxConnections());
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(timeout(pool.connectTimeout()))
+                .setSocketTimeout(timeout(pool.responseTimeout()))
+                .setTimeToLive(TimeValue.ofMilliseconds(pool.timeToLive().toMillis()))
+                .build());
+
+        // leased, available, pending and max connections per pool
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "file-storage-" + poolName)
+                .bindTo(meterRegistry);
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .addExecInterceptorFirst("timeout-metrics", new TimeoutMetricsExecHandler(poolName, meterRegistry))
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(timeout(pool.poolTimeout()))
+                        .setResponseTimeout(timeout(pool.responseTimeout()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(pool.idleTimeout().toMillis()))
+                .build();
+    }
+
+    private static Timeout timeout(Duration duration) {
+        return Timeout.ofMilliseconds(duration.toMillis());
+    }
 }
@@ -0,0 +1,75 @@
+package pl.kamil.content_service.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import pl.kamil.content_service.domain.Content;
+import pl.kamil.content_service.domain.Lesson;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.OptionalLong;
+
+/**
+ * Turns on the Hibernate second-level and query cache when {@code lesson.cache.enabled} is set, backed by
+ * Caffeine through JCache. Every region is created here with its own size and TTL; an entity or collection
+ * marked cacheable without a region below fails the startup. Bulk deletes evict the regions of the tables
+ * they touch, so deleted lessons are never served from this instance's cache. Hit and miss counts per region
+ * are exported as {@code hibernate.second.level.cache.requests} and {@code hibernate.cache.query.requests}.
+ * <p>
+ * The cache is single-instance only. Nothing tells other instances about a write, so they would keep serving
+ * deleted or replaced lessons until their entries expire. Enabling it without
+ * {@code lesson.cache.single-instance=true} therefore fails the startup.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "lesson.cache.enabled", havingValue = "true")
+@EnableConfigurationProperties(SecondLevelCacheProperties.class)
+public class SecondLevelCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(SecondLevelCacheProperties properties) {
+        if (!properties.singleInstance()) {
+            throw new IllegalStateException("lesson.cache.enabled requires lesson.cache.single-instance=true: "
+                    + "the second-level cache is in process and is not invalidated across instances");
+        }
+        log.warn("Hibernate second-level cache enabled; it is not invalidated across instances, "
+                + "run a single instance of this service while it is on");
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        createRegion(cacheManager, Lesson.CACHE_REGION, properties.lesson());
+        createRegion(cacheManager, Content.CACHE_REGION, properties.content());
+        createRegion(cacheManager, Content.CHUNKS_CACHE_REGION, properties.chunks());
+        createRegion(cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, properties.query());
+        // last write per table, what cached query results are checked against; never expired, one entry per table
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCache(CacheManager secondLevelCacheManager) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            // needed for the hit ratios on /actuator/metrics
+            hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    private static void createRegion(CacheManager cacheManager, String name, SecondLevelCacheProperties.Region region) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(region.maxEntries()));
+        configuration.setExpireAfterWrite(OptionalLong.of(region.ttl().toNanos()));
+        cacheManager.createCache(name, configuration);
+    }
+}
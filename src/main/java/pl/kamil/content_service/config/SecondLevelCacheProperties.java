@@ -0,0 +1,28 @@
+package pl.kamil.content_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Hibernate second-level and query cache, held in process. Lessons and their content are written
+ * once and read many times, so entries live until the TTL or until a write to their table evicts them.
+ */
+@ConfigurationProperties(prefix = "lesson.cache")
+public record SecondLevelCacheProperties(
+        @DefaultValue("false") boolean enabled,
+        // confirms only one instance runs, required with enabled: other instances' writes never evict entries here
+        @DefaultValue("false") boolean singleInstance,
+        @DefaultValue Region lesson,
+        @DefaultValue Region content,
+        // chunk lists of chunked texts, one entry per content row
+        @DefaultValue Region chunks,
+        // results of the point lookups by lesson id, checked against the last write to their tables
+        @DefaultValue Region query) {
+
+    public record Region(
+            @DefaultValue("10000") long maxEntries,
+            @DefaultValue("1h") Duration ttl) {
+    }
+}
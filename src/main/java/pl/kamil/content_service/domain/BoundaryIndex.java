@@ -0,0 +1,114 @@
+package pl.kamil.content_service.domain;
+
+import jakarta.persistence.*;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Where every word and every sentence of a lesson text starts, in characters and in UTF-8 bytes,
+ * computed once at ingest. Any page size counted in words or sentences is answered from it:
+ * page {@code n} of {@code k} words runs from the start of word {@code n * k} to the start of
+ * word {@code (n + 1) * k}, or to the end of the text for the last page. A lookup reads the
+ * offsets it needs in place, from the arrays of the asked unit only.
+ */
+@Embeddable
+public class BoundaryIndex {
+
+    // each array ends with the length of the text, so unit i always spans [offsets[i], offsets[i + 1])
+    @Lob
+    @Column(name = "word_starts", length = 16_777_215)
+    private byte[] wordOffsets;
+
+    @Lob
+    @Column(name = "word_byte_starts", length = 16_777_215)
+    private byte[] wordByteOffsets;
+
+    @Lob
+    @Column(name = "sentence_starts", length = 16_777_215)
+    private byte[] sentenceOffsets;
+
+    @Lob
+    @Column(name = "sentence_byte_starts", length = 16_777_215)
+    private byte[] sentenceByteOffsets;
+
+    protected BoundaryIndex() {
+    }
+
+    BoundaryIndex(int[] wordOffsets, int[] wordByteOffsets, int[] sentenceOffsets, int[] sentenceByteOffsets) {
+        this.wordOffsets = OffsetEncoding.encode(wordOffsets);
+        this.wordByteOffsets = OffsetEncoding.encode(wordByteOffsets);
+        this.sentenceOffsets = OffsetEncoding.encode(sentenceOffsets);
+        this.sentenceByteOffsets = OffsetEncoding.encode(sentenceByteOffsets);
+    }
+
+    // for texts indexed before boundaries were recorded; gives the same result as streaming them at ingest
+    public static BoundaryIndex build(String text) {
+        BoundaryIndexBuilder builder = new BoundaryIndexBuilder();
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        builder.update(bytes, 0, bytes.length);
+        return builder.build();
+    }
+
+    public int count(PaginationUnit unit) {
+        return OffsetEncoding.count(offsets(unit)) - 1;
+    }
+
+    public int pageCount(PaginationUnit unit, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return (int) ((count(unit) + (long) pageSize - 1) / pageSize);
+    }
+
+    public boolean contains(PaginationUnit unit, int pageSize, int pageNo) {
+        return pageNo >= 0 && pageNo < pageCount(unit, pageSize);
+    }
+
+    public int start(PaginationUnit unit, int pageSize, int pageNo) {
+        return OffsetEncoding.get(offsets(unit), first(unit, pageSize, pageNo));
+    }
+
+    public int end(PaginationUnit unit, int pageSize, int pageNo) {
+        return OffsetEncoding.get(offsets(unit), first(unit, pageSize, pageNo + 1));
+    }
+
+    public int byteStart(PaginationUnit unit, int pageSize, int pageNo) {
+        return OffsetEncoding.get(byteOffsets(unit), first(unit, pageSize, pageNo));
+    }
+
+    public int byteLength(PaginationUnit unit, int pageSize, int pageNo) {
+        byte[] cuts = byteOffsets(unit);
+        return OffsetEncoding.get(cuts, first(unit, pageSize, pageNo + 1))
+                - OffsetEncoding.get(cuts, first(unit, pageSize, pageNo));
+    }
+
+    // heap taken by the encoded offsets, what an in-memory copy of the index costs
+    public int sizeBytes() {
+        return wordOffsets.length + wordByteOffsets.length + sentenceOffsets.length + sentenceByteOffsets.length;
+    }
+
+    // the unit a page starts with, or the sentinel past the last one
+    private int first(PaginationUnit unit, int pageSize, int pageNo) {
+        return (int) Math.min((long) pageNo * pageSize, count(unit));
+    }
+
+    private byte[] offsets(PaginationUnit unit) {
+        return switch (unit) {
+            case WORDS -> wordOffsets;
+            case SENTENCES -> sentenceOffsets;
+            case CHARS -> throw charPages();
+        };
+    }
+
+    private byte[] byteOffsets(PaginationUnit unit) {
+        return switch (unit) {
+            case WORDS -> wordByteOffsets;
+            case SENTENCES -> sentenceByteOffsets;
+            case CHARS -> throw charPages();
+        };
+    }
+
+    private static IllegalArgumentException charPages() {
+        return new IllegalArgumentException("Character pages are cut by the page index");
+    }
+}
@@ -0,0 +1,150 @@
+package pl.kamil.content_service.domain;
+
+import java.util.Arrays;
+
+/**
+ * Builds a {@link BoundaryIndex} from UTF-8 bytes fed in arbitrary slices, without holding the text.
+ * <p>
+ * A word starts at a non-whitespace character following whitespace or the start of the text,
+ * as counted by {@link WordCounter}. A sentence starts with the first word of the text, the first
+ * word after one ending in {@code .}, {@code !}, {@code ?} or an ellipsis (closing quotes and
+ * brackets may follow the mark), and the first word after a blank line, so headings and list items
+ * without punctuation still end. Abbreviations such as "e.g." end a sentence too; that is the price
+ * of deciding without a dictionary.
+ */
+public final class BoundaryIndexBuilder {
+
+    private final Offsets words = new Offsets();
+    private final Offsets sentences = new Offsets();
+
+    // UTF-16 units seen so far
+    private int position;
+    private long bytesSeen;
+
+    private boolean inWord;
+    private boolean wordEndsSentence;
+    private boolean sentenceEnded = true;
+    private int newlines;
+
+    // state of a multi-byte sequence that may continue in the next slice
+    private int pendingBytes;
+    private int codePoint;
+    private int codePointStart;
+
+    public void update(byte[] buffer, int offset, int length) {
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            int b = buffer[i] & 0xFF;
+            int byteOffset = (int) bytesSeen++;
+
+            if (pendingBytes > 0) {
+                if ((b & 0xC0) == 0x80) {
+                    codePoint = (codePoint << 6) | (b & 0x3F);
+                    if (--pendingBytes == 0) {
+                        character(codePoint, codePointStart);
+                    }
+                    continue;
+                }
+                // truncated sequence, decoded as a single replacement character
+                pendingBytes = 0;
+                character(0xFFFD, codePointStart);
+            }
+
+            if (b < 0x80) {
+                character(b, byteOffset);
+                continue;
+            }
+            codePointStart = byteOffset;
+            if (b >= 0xF0) {
+                pendingBytes = 3;
+                codePoint = b & 0x07;
+            } else if (b >= 0xE0) {
+                pendingBytes = 2;
+                codePoint = b & 0x0F;
+            } else if (b >= 0xC0) {
+                pendingBytes = 1;
+                codePoint = b & 0x1F;
+            } else {
+                // stray continuation byte
+                character(0xFFFD, byteOffset);
+            }
+        }
+    }
+
+    public BoundaryIndex build() {
+        if (pendingBytes > 0) {
+            pendingBytes = 0;
+            character(0xFFFD, codePointStart);
+        }
+        int[] wordOffsets = words.closed(position, false);
+        int[] wordByteOffsets = words.closed((int) bytesSeen, true);
+        int[] sentenceOffsets = sentences.closed(position, false);
+        int[] sentenceByteOffsets = sentences.closed((int) bytesSeen, true);
+        return new BoundaryIndex(wordOffsets, wordByteOffsets, sentenceOffsets, sentenceByteOffsets);
+    }
+
+    private void character(int codePoint, int byteOffset) {
+        if (Character.isWhitespace(codePoint)) {
+            if (inWord) {
+                inWord = false;
+                sentenceEnded |= wordEndsSentence;
+            }
+            if (codePoint == '\n' && ++newlines >= 2) {
+                sentenceEnded = true;
+            }
+        } else {
+            newlines = 0;
+            if (!inWord) {
+                inWord = true;
+                wordEndsSentence = false;
+                words.add(position, byteOffset);
+                if (sentenceEnded) {
+                    sentenceEnded = false;
+                    sentences.add(position, byteOffset);
+                }
+            }
+            if (isSentenceMark(codePoint)) {
+                wordEndsSentence = true;
+            } else if (!isClosing(codePoint)) {
+                wordEndsSentence = false;
+            }
+        }
+        position += Character.charCount(codePoint);
+    }
+
+    private static boolean isSentenceMark(int codePoint) {
+        return codePoint == '.' || codePoint == '!' || codePoint == '?' || codePoint == '\u2026';
+    }
+
+    private static boolean isClosing(int codePoint) {
+        return switch (Character.getType(codePoint)) {
+            case Character.END_PUNCTUATION, Character.FINAL_QUOTE_PUNCTUATION -> true;
+            default -> codePoint == '"' || codePoint == '\'';
+        };
+    }
+
+    // char and byte offsets of unit starts, kept side by side
+    private static final class Offsets {
+
+        private int[] chars = new int[64];
+        private int[] bytes = new int[64];
+        private int count;
+
+        private void add(int charOffset, int byteOffset) {
+            if (count == chars.length) {
+                chars = Arrays.copyOf(chars, count * 2);
+                bytes = Arrays.copyOf(bytes, count * 2);
+            }
+            chars[count] = charOffset;
+            bytes[count] = byteOffset;
+            count++;
+        }
+
+        // the starts followed by the end of the text
+        private int[] closed(int end, boolean inBytes) {
+            int[] offsets = Arrays.copyOf(inBytes ? bytes : chars, count + 1);
+            offsets[count] = end;
+            return offsets;
+        }
+    }
+}
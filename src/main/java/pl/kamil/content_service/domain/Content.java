@@ -2,19 +2,31 @@ package pl.kamil.content_service.domain;
 
 import jakarta.persistence.*;
 import lombok.Getter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import pl.kamil.content_service.shared.persistence.TimeOrderedUuid;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 @Entity
 @Getter
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Content.CACHE_REGION)
 public class Content {
 
+    public static final String CACHE_REGION = "content";
+    public static final String CHUNKS_CACHE_REGION = "content.chunks";
+
     protected Content() {
     }
 
-    private Content(String s3Key, long totalWords) {
+    private Content(String s3Key, long totalWords, Long sizeBytes, String checksum, ContentCodec codec) {
         if (s3Key == null || s3Key.isBlank()) {
             throw new IllegalArgumentException("S3 key cannot be null or blank");
         }
@@ -23,19 +35,54 @@ public class Content {
         }
         this.s3Key = s3Key;
         this.totalWords = totalWords;
+        this.sizeBytes = sizeBytes;
+        this.checksum = checksum;
+        this.codec = codec;
         this.createdAt = Instant.now();
     }
 
     public static Content create(String s3Key, long totalWords) {
-        return new Content(s3Key, totalWords);
+        return new Content(s3Key, totalWords, null, null, ContentCodec.IDENTITY);
+    }
+
+    public static Content create(String s3Key, long totalWords, long sizeBytes, String checksum, ContentCodec codec) {
+        return new Content(s3Key, totalWords, sizeBytes, checksum, codec);
+    }
+
+    // a text stored as chunk objects; s3Key names the first chunk, the page index saved with it locates the rest
+    public static Content createChunked(
+            List<ContentChunk> chunks, long totalWords, long sizeBytes, String checksum, ContentCodec codec) {
+        if (chunks.isEmpty() || chunks.get(0).getFirstPage() != 0) {
+            throw new IllegalArgumentException("Chunks must start at the first page");
+        }
+        Content content = new Content(chunks.get(0).getS3Key(), totalWords, sizeBytes, checksum, codec);
+        content.chunks.addAll(chunks);
+        return content;
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID id;
     private String s3Key; // path to file in s3
     private long totalWords;
 
+    // size and CRC-32C of the stored object, unknown for lessons uploaded before they were recorded
+    private Long sizeBytes;
+    @Column(length = 8)
+    private String checksum;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private ContentCodec codec;
+
+    // empty unless the text was stored in chunks; the FK cascade covers bulk deletes of content rows
+    @ElementCollection
+    @CollectionTable(name = "content_chunk", joinColumns = @JoinColumn(name = "content_id"))
+    @OrderColumn(name = "chunk_no")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CHUNKS_CACHE_REGION)
+    private List<ContentChunk> chunks = new ArrayList<>();
+
     @CreationTimestamp
     private Instant createdAt;
 
@@ -45,4 +92,33 @@ public class Content {
     @JoinColumn(name = "lesson_id")
     private Lesson lesson;
 
+    // rows written before the codec was recorded hold plain text
+    public ContentCodec getCodec() {
+        return codec != null ? codec : ContentCodec.IDENTITY;
+    }
+
+    public boolean isChunked() {
+        return !chunks.isEmpty();
+    }
+
+    // every stored object holding this text
+    public List<String> fileKeys() {
+        return isChunked() ? chunks.stream().map(ContentChunk::getS3Key).toList() : List.of(s3Key);
+    }
+
+    // the chunk holding the given page, found by binary search over the first pages
+    public ContentChunk chunkOf(int pageNo) {
+        int low = 0;
+        int high = chunks.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (chunks.get(mid).getFirstPage() <= pageNo) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return chunks.get(low);
+    }
+
 }
@@ -0,0 +1,43 @@
+package pl.kamil.content_service.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.util.UUID;
+
+/**
+ * The {@link BoundaryIndex} of one content, in a table of its own. It can run to megabytes, so it is
+ * kept out of the content row, which every read loads and the second-level cache holds, and is only
+ * looked up for word and sentence pages. Lessons uploaded before boundaries were recorded have no row.
+ */
+@Entity
+@Getter
+@Table(name = "content_boundaries")
+public class ContentBoundaries {
+
+    @Id
+    private UUID contentId;
+
+    // the FK cascade covers bulk deletes of content rows
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "content_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Content content;
+
+    @Embedded
+    private BoundaryIndex boundaryIndex;
+
+    protected ContentBoundaries() {
+    }
+
+    public ContentBoundaries(Content content, BoundaryIndex boundaryIndex) {
+        if (content == null || boundaryIndex == null) {
+            throw new IllegalArgumentException("Content and boundary index cannot be null");
+        }
+        this.content = content;
+        this.boundaryIndex = boundaryIndex;
+    }
+}
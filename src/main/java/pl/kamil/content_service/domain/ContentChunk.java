@@ -0,0 +1,31 @@
+package pl.kamil.content_service.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.Getter;
+
+/**
+ * One stored object of a chunked lesson text: whole consecutive pages of the {@link PageIndex},
+ * starting with {@code firstPage} and running up to the first page of the next chunk.
+ */
+@Embeddable
+@Getter
+public class ContentChunk {
+
+    @Column(name = "s3_key", nullable = false)
+    private String s3Key;
+
+    @Column(name = "first_page", nullable = false)
+    private int firstPage;
+
+    protected ContentChunk() {
+    }
+
+    public ContentChunk(String s3Key, int firstPage) {
+        if (s3Key == null || s3Key.isBlank()) {
+            throw new IllegalArgumentException("S3 key cannot be null or blank");
+        }
+        this.s3Key = s3Key;
+        this.firstPage = firstPage;
+    }
+}
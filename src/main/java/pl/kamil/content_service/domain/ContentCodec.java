@@ -0,0 +1,64 @@
+package pl.kamil.content_service.domain;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * How a lesson text is encoded in storage. Both directions stream, nothing is held in memory.
+ */
+public enum ContentCodec {
+
+    IDENTITY {
+        @Override
+        public InputStream encode(InputStream raw) {
+            return raw;
+        }
+
+        @Override
+        public InputStream decode(InputStream stored) {
+            return stored;
+        }
+    },
+
+    // zlib at the fastest level, plain text still shrinks 3-4x
+    DEFLATE {
+        @Override
+        public InputStream encode(InputStream raw) {
+            return new DeflatingInputStream(raw);
+        }
+
+        @Override
+        public InputStream decode(InputStream stored) {
+            return new InflaterInputStream(stored);
+        }
+    };
+
+    public abstract InputStream encode(InputStream raw);
+
+    public abstract InputStream decode(InputStream stored);
+
+    // stored bytes line up with text offsets, so byte ranges can be requested from storage
+    public boolean supportsRanges() {
+        return this == IDENTITY;
+    }
+
+    // DeflaterInputStream only ends a deflater it created itself, this one holds native memory until ended
+    private static final class DeflatingInputStream extends DeflaterInputStream {
+
+        private DeflatingInputStream(InputStream raw) {
+            super(raw, new Deflater(Deflater.BEST_SPEED));
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                def.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package pl.kamil.content_service.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.util.UUID;
+
+/**
+ * The {@link PageIndex} of one content, in a table of its own. It grows with the text, so it is kept
+ * out of the content row, which every read loads and the second-level cache holds. Lessons uploaded
+ * before the index moved here have no row and are cut on the fly.
+ */
+@Entity
+@Getter
+@Table(name = "content_page_index")
+public class ContentPageIndex {
+
+    @Id
+    private UUID contentId;
+
+    // the FK cascade covers bulk deletes of content rows
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "content_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Content content;
+
+    @Embedded
+    private PageIndex pageIndex;
+
+    protected ContentPageIndex() {
+    }
+
+    public ContentPageIndex(Content content, PageIndex pageIndex) {
+        if (content == null || pageIndex == null) {
+            throw new IllegalArgumentException("Content and page index cannot be null");
+        }
+        this.content = content;
+        this.pageIndex = pageIndex;
+    }
+}
@@ -0,0 +1,17 @@
+package pl.kamil.content_service.domain;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Identity of a lesson's stored text, enough to answer conditional requests without
+ * loading the page index or touching storage. Content never changes after upload.
+ */
+public record ContentVersion(
+        UUID lessonId,
+        UUID createdBy,
+        UUID contentId,
+        String checksum,
+        Instant createdAt
+) {
+}
@@ -0,0 +1,145 @@
+package pl.kamil.content_service.domain;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HexFormat;
+import java.util.zip.CRC32C;
+
+/**
+ * Everything ingest learns about an uploaded text, gathered in the same pass that streams it to storage.
+ * Wrap the upload with {@link #tee(InputStream)} and read the results once the stream is closed.
+ */
+public final class IngestAnalyzer {
+
+    private final WordCounter wordCounter = new WordCounter();
+    private final PageIndexBuilder pageIndexBuilder;
+    private final BoundaryIndexBuilder boundaryIndexBuilder = new BoundaryIndexBuilder();
+    private final PageSink sink;
+    private final CRC32C checksum = new CRC32C();
+    private long sizeBytes;
+    private long analysisNanos;
+
+    public IngestAnalyzer(int pageSize) {
+        this(pageSize, null);
+    }
+
+    public IngestAnalyzer(int pageSize, PageSink sink) {
+        this.pageIndexBuilder = new PageIndexBuilder(pageSize, sink);
+        this.sink = sink;
+    }
+
+    public void update(byte[] buffer, int offset, int length) {
+        long start = System.nanoTime();
+        // the sink holds the bytes before any page ending among them is announced
+        if (sink != null) {
+            sink.write(buffer, offset, length);
+        }
+        wordCounter.update(buffer, offset, length);
+        pageIndexBuilder.update(buffer, offset, length);
+        boundaryIndexBuilder.update(buffer, offset, length);
+        checksum.update(buffer, offset, length);
+        sizeBytes += length;
+        analysisNanos += System.nanoTime() - start;
+    }
+
+    /**
+     * Returns a stream passing every byte it reads through this analyzer. Closing it reads
+     * whatever the consumer left unread, so the results always cover the whole input.
+     */
+    public InputStream tee(InputStream in) {
+        return new AnalyzingInputStream(in);
+    }
+
+    public long totalWords() {
+        return wordCounter.count();
+    }
+
+    public PageIndex pageIndex() {
+        return pageIndexBuilder.build();
+    }
+
+    public BoundaryIndex boundaryIndex() {
+        return boundaryIndexBuilder.build();
+    }
+
+    public long sizeBytes() {
+        return sizeBytes;
+    }
+
+    // time spent in update(), including whatever the sink does when told about page ends
+    public long analysisNanos() {
+        return analysisNanos;
+    }
+
+    // CRC-32C of the stored bytes as 8 hex digits
+    public String checksum() {
+        return HexFormat.of().toHexDigits((int) checksum.getValue());
+    }
+
+    private final class AnalyzingInputStream extends FilterInputStream {
+
+        private boolean closed;
+
+        private AnalyzingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b != -1) {
+                update(new byte[]{(byte) b}, 0, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = in.read(buffer, offset, length);
+            if (read > 0) {
+                update(buffer, offset, read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // skipped bytes still have to be analyzed
+            if (n <= 0) {
+                return 0;
+            }
+            byte[] buffer = new byte[(int) Math.min(n, WordCounter.BUFFER_SIZE)];
+            long skipped = 0;
+            while (skipped < n) {
+                int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+                if (read == -1) {
+                    break;
+                }
+                skipped += read;
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                byte[] buffer = new byte[WordCounter.BUFFER_SIZE];
+                while (read(buffer, 0, buffer.length) != -1) {
+                    // drained into the analyzer
+                }
+            } finally {
+                in.close();
+            }
+        }
+    }
+}
@@ -2,21 +2,30 @@ package pl.kamil.content_service.domain;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+import pl.kamil.content_service.shared.persistence.TimeOrderedUuid;
 
 import java.time.Instant;
 import java.util.UUID;
 
 @Entity
 @Getter
-@Table(name = "lesson")
+@Table(name = "lesson", indexes = {
+        @Index(name = "idx_lesson_created_by_created_at", columnList = "created_by, created_at, id")
+})
 @EntityListeners(AuditingEntityListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Lesson.CACHE_REGION)
 public class Lesson {
 
+    public static final String CACHE_REGION = "lesson";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID id;
     private UUID createdBy;
 
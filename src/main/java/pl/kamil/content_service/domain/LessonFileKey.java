@@ -0,0 +1,9 @@
+package pl.kamil.content_service.domain;
+
+import java.util.UUID;
+
+/**
+ * Owner and stored file of a lesson, everything a bulk delete needs without loading the entities.
+ */
+public record LessonFileKey(UUID lessonId, UUID createdBy, String s3Key) {
+}
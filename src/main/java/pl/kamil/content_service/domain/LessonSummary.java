@@ -0,0 +1,17 @@
+package pl.kamil.content_service.domain;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Read-only view of a lesson row, selected directly by listing and detail queries
+ * so neither the {@link Lesson} entity nor its {@link Content} is hydrated.
+ */
+public record LessonSummary(
+        UUID id,
+        String title,
+        UUID createdBy,
+        Instant createdAt,
+        Instant updatedAt
+) {
+}
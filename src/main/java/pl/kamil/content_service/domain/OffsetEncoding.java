@@ -0,0 +1,38 @@
+package pl.kamil.content_service.domain;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Binary form for ascending offset arrays: each value is stored as four big-endian bytes, so
+ * value {@code i} is read in place at byte {@code 4 * i} without decoding the ones before it.
+ */
+final class OffsetEncoding {
+
+    private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private OffsetEncoding() {
+    }
+
+    static byte[] encode(int[] offsets) {
+        byte[] encoded = new byte[offsets.length * Integer.BYTES];
+        int previous = 0;
+        for (int i = 0; i < offsets.length; i++) {
+            if (offsets[i] < previous) {
+                throw new IllegalArgumentException("Offsets must be ascending");
+            }
+            INT.set(encoded, i * Integer.BYTES, offsets[i]);
+            previous = offsets[i];
+        }
+        return encoded;
+    }
+
+    static int count(byte[] encoded) {
+        return encoded.length / Integer.BYTES;
+    }
+
+    static int get(byte[] encoded, int index) {
+        return (int) INT.get(encoded, index * Integer.BYTES);
+    }
+}
@@ -0,0 +1,140 @@
+package pl.kamil.content_service.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * Word-safe page boundaries of a lesson text for a single page size, computed once at ingest.
+ * Page {@code n} spans the characters {@code [start(n), end(n))}, which are the bytes
+ * {@code [byteStart(n), byteStart(n) + byteLength(n))} of the stored UTF-8 object. Offsets are
+ * read in place from their fixed-width encoding, a page lookup never decodes the whole index.
+ */
+@Embeddable
+public class PageIndex {
+
+    // how far past the nominal page end we look for a space to avoid splitting a word
+    public static final int LOOKAHEAD = 20;
+
+    @Getter
+    @Column(name = "page_size", nullable = false)
+    private int pageSize;
+
+    @Lob
+    @Column(name = "page_starts", nullable = false, length = 16_777_215)
+    private byte[] offsets;
+
+    @Lob
+    @Column(name = "page_byte_starts", nullable = false, length = 16_777_215)
+    private byte[] byteOffsets;
+
+    protected PageIndex() {
+    }
+
+    PageIndex(int pageSize, int[] offsets, int[] byteOffsets) {
+        this.pageSize = pageSize;
+        this.offsets = OffsetEncoding.encode(offsets);
+        this.byteOffsets = OffsetEncoding.encode(byteOffsets);
+    }
+
+    public static PageIndex build(String text, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        int totalLength = text.length();
+        int[] cuts = new int[totalLength / pageSize + 2];
+        int[] byteCuts = new int[cuts.length];
+        int cutCount = 1;
+
+        int start = 0;
+        int startByte = 0;
+        while (start < totalLength) {
+            int end = pageEnd(text, start, pageSize);
+            startByte += utf8Length(text, start, end);
+            if (cutCount == cuts.length) {
+                cuts = Arrays.copyOf(cuts, cutCount * 2);
+                byteCuts = Arrays.copyOf(byteCuts, cutCount * 2);
+            }
+            cuts[cutCount] = end;
+            byteCuts[cutCount] = startByte;
+            cutCount++;
+            start = end;
+        }
+
+        return new PageIndex(pageSize, Arrays.copyOf(cuts, cutCount), Arrays.copyOf(byteCuts, cutCount));
+    }
+
+    /**
+     * Where the page starting at {@code start} ends: at the nominal page end, or at the first space
+     * within {@link #LOOKAHEAD} characters past it. Only those characters are looked at.
+     */
+    public static int pageEnd(String text, int start, int pageSize) {
+        int totalLength = text.length();
+        int end = (int) Math.min((long) start + pageSize, totalLength);
+        if (end < totalLength) {
+            int limit = (int) Math.min((long) end + LOOKAHEAD, totalLength);
+            for (int i = end; i < limit; i++) {
+                if (text.charAt(i) == ' ') {
+                    return i;
+                }
+            }
+        }
+        return end;
+    }
+
+    public boolean covers(int pageSize) {
+        return this.pageSize == pageSize;
+    }
+
+    public boolean contains(int pageNo) {
+        return pageNo >= 0 && pageNo < pageCount();
+    }
+
+    public int pageCount() {
+        return OffsetEncoding.count(offsets) - 1;
+    }
+
+    public int textLength() {
+        return OffsetEncoding.get(offsets, pageCount());
+    }
+
+    public int start(int pageNo) {
+        return OffsetEncoding.get(offsets, pageNo);
+    }
+
+    public int end(int pageNo) {
+        return OffsetEncoding.get(offsets, pageNo + 1);
+    }
+
+    public int byteStart(int pageNo) {
+        return OffsetEncoding.get(byteOffsets, pageNo);
+    }
+
+    public int byteLength(int pageNo) {
+        return OffsetEncoding.get(byteOffsets, pageNo + 1) - OffsetEncoding.get(byteOffsets, pageNo);
+    }
+
+    // heap taken by the encoded offsets, what an in-memory copy of the index costs
+    public int sizeBytes() {
+        return offsets.length + byteOffsets.length;
+    }
+
+    private static int utf8Length(String text, int from, int to) {
+        int length = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                // the pair is encoded as four bytes, accounted to the high surrogate
+                length += 4;
+            } else if (!Character.isLowSurrogate(c)) {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
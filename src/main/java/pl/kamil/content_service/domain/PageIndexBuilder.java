@@ -0,0 +1,172 @@
+package pl.kamil.content_service.domain;
+
+import java.util.Arrays;
+
+/**
+ * Builds the same {@link PageIndex} as {@link PageIndex#build(String, int)} from UTF-8 bytes fed in
+ * arbitrary slices, without holding the text. Only the last {@link PageIndex#LOOKAHEAD} characters
+ * past a nominal page end are remembered while looking for a space to cut at.
+ */
+public final class PageIndexBuilder {
+
+    private final int pageSize;
+    private final PageSink sink;
+
+    private int[] cuts = new int[64];
+    private int[] byteCuts = new int[64];
+    private int cutCount = 1;
+
+    // UTF-16 units seen so far and where the current page starts
+    private int position;
+    private int pageStart;
+    private long bytesSeen;
+
+    // lookahead past the nominal page end, byte offsets of the units scanned without finding a space
+    private boolean inLookahead;
+    private int nominalEndByte;
+    private boolean nominalEndSplits;
+    private final int[] pending = new int[PageIndex.LOOKAHEAD];
+    private final boolean[] pendingLowSurrogate = new boolean[PageIndex.LOOKAHEAD];
+    private int pendingCount;
+
+    // state of a multi-byte sequence that may continue in the next slice
+    private int pendingBytes;
+    private int codePoint;
+    private int codePointStart;
+
+    public PageIndexBuilder(int pageSize) {
+        this(pageSize, null);
+    }
+
+    // the sink hears about every page end as soon as it is decided, before build()
+    public PageIndexBuilder(int pageSize, PageSink sink) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        this.pageSize = pageSize;
+        this.sink = sink;
+    }
+
+    public void update(byte[] buffer, int offset, int length) {
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            int b = buffer[i] & 0xFF;
+            int byteOffset = (int) bytesSeen++;
+
+            if (pendingBytes > 0) {
+                if ((b & 0xC0) == 0x80) {
+                    codePoint = (codePoint << 6) | (b & 0x3F);
+                    if (--pendingBytes == 0) {
+                        character(codePoint, codePointStart);
+                    }
+                    continue;
+                }
+                // truncated sequence, decoded as a single replacement character
+                pendingBytes = 0;
+                character(0xFFFD, codePointStart);
+            }
+
+            if (b < 0x80) {
+                character(b, byteOffset);
+                continue;
+            }
+            codePointStart = byteOffset;
+            if (b >= 0xF0) {
+                pendingBytes = 3;
+                codePoint = b & 0x07;
+            } else if (b >= 0xE0) {
+                pendingBytes = 2;
+                codePoint = b & 0x0F;
+            } else if (b >= 0xC0) {
+                pendingBytes = 1;
+                codePoint = b & 0x1F;
+            } else {
+                // stray continuation byte
+                character(0xFFFD, byteOffset);
+            }
+        }
+    }
+
+    public PageIndex build() {
+        if (pendingBytes > 0) {
+            pendingBytes = 0;
+            character(0xFFFD, codePointStart);
+        }
+        // the text ended before a space showed up, cut at the nominal end as PageIndex.build does
+        while (inLookahead) {
+            cutWithoutSpace();
+        }
+        if (position > pageStart) {
+            cut(position, (int) bytesSeen, false);
+        }
+        return new PageIndex(pageSize, Arrays.copyOf(cuts, cutCount), Arrays.copyOf(byteCuts, cutCount));
+    }
+
+    private void character(int codePoint, int byteOffset) {
+        if (Character.isSupplementaryCodePoint(codePoint)) {
+            // as in PageIndex, all four bytes belong to the high surrogate
+            unit(false, byteOffset, false);
+            unit(false, byteOffset + 4, true);
+        } else {
+            unit(codePoint == ' ', byteOffset, false);
+        }
+    }
+
+    private void unit(boolean space, int byteOffset, boolean lowSurrogate) {
+        if (!inLookahead) {
+            if (position < pageStart + pageSize) {
+                position++;
+                return;
+            }
+            // a unit exists at the nominal end, so the page does not end the text
+            inLookahead = true;
+            nominalEndByte = byteOffset;
+            nominalEndSplits = lowSurrogate;
+            pendingCount = 0;
+        }
+
+        if (space) {
+            inLookahead = false;
+            cut(position, byteOffset, false);
+            position++;
+            return;
+        }
+
+        pendingLowSurrogate[pendingCount] = lowSurrogate;
+        pending[pendingCount++] = byteOffset;
+        position++;
+        if (pendingCount == PageIndex.LOOKAHEAD) {
+            cutWithoutSpace();
+        }
+    }
+
+    private void cutWithoutSpace() {
+        int nominalEnd = pageStart + pageSize;
+        int[] replay = Arrays.copyOf(pending, pendingCount);
+        boolean[] replayLowSurrogate = Arrays.copyOf(pendingLowSurrogate, pendingCount);
+
+        inLookahead = false;
+        cut(nominalEnd, nominalEndByte, nominalEndSplits);
+
+        // the scanned units start the next page, which may reach its own nominal end among them
+        position = nominalEnd;
+        for (int i = 0; i < replay.length; i++) {
+            unit(false, replay[i], replayLowSurrogate[i]);
+        }
+    }
+
+    // a cut between the halves of a surrogate pair has no byte of its own, so the sink does not hear of it
+    private void cut(int end, int endByte, boolean splitsCharacter) {
+        if (cutCount == cuts.length) {
+            cuts = Arrays.copyOf(cuts, cutCount * 2);
+            byteCuts = Arrays.copyOf(byteCuts, cutCount * 2);
+        }
+        cuts[cutCount] = end;
+        byteCuts[cutCount] = endByte;
+        cutCount++;
+        pageStart = end;
+        if (sink != null && !splitsCharacter) {
+            sink.pageEnded(cutCount - 1, endByte);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package pl.kamil.content_service.domain;
+
+/**
+ * Receives an ingested text as it streams, together with each page end as soon as
+ * {@link PageIndexBuilder} has decided it. Page ends always lie within bytes already written;
+ * one falling between the two halves of a surrogate pair is left out, as no byte separates them.
+ */
+public interface PageSink {
+
+    void write(byte[] buffer, int offset, int length);
+
+    // pages [0, pageCount) are complete, the last of them ends right before byte endByte
+    void pageEnded(int pageCount, int endByte);
+}
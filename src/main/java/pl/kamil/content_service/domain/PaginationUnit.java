@@ -0,0 +1,24 @@
+package pl.kamil.content_service.domain;
+
+import pl.kamil.content_service.shared.ErrorMessages;
+
+/**
+ * What a page size counts. Character pages follow the {@link PageIndex}, word and sentence pages
+ * the {@link BoundaryIndex}, and never cut a word or sentence in half.
+ */
+public enum PaginationUnit {
+
+    CHARS,
+    WORDS,
+    SENTENCES;
+
+    // the value of the unit request parameter, in any case
+    public static PaginationUnit fromParam(String value) {
+        for (PaginationUnit unit : values()) {
+            if (unit.name().equalsIgnoreCase(value)) {
+                return unit;
+            }
+        }
+        throw new IllegalArgumentException(ErrorMessages.INVALID_PAGINATION_UNIT);
+    }
+}
@@ -0,0 +1,92 @@
+package pl.kamil.content_service.domain;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Counts whitespace-separated words in UTF-8 encoded text without decoding it into a String.
+ * Whitespace follows {@link Character#isWhitespace(int)}; multi-byte sequences are decoded by
+ * hand, so a counter can be fed arbitrary buffer slices, even ones splitting a character.
+ */
+public final class WordCounter {
+
+    static final int BUFFER_SIZE = 8 * 1024;
+
+    private static final boolean[] ASCII_WHITESPACE = new boolean[128];
+
+    static {
+        for (int c = 0; c < ASCII_WHITESPACE.length; c++) {
+            ASCII_WHITESPACE[c] = Character.isWhitespace(c);
+        }
+    }
+
+    private long words;
+    private boolean inWord;
+
+    // state of a multi-byte sequence that may continue in the next buffer
+    private int pendingBytes;
+    private int codePoint;
+
+    public void update(byte[] buffer, int offset, int length) {
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            int b = buffer[i] & 0xFF;
+
+            if (pendingBytes > 0) {
+                if ((b & 0xC0) == 0x80) {
+                    codePoint = (codePoint << 6) | (b & 0x3F);
+                    if (--pendingBytes == 0) {
+                        accept(Character.isWhitespace(codePoint));
+                    }
+                    continue;
+                }
+                // truncated sequence, the lead byte still stood for a non-space character
+                pendingBytes = 0;
+                accept(false);
+            }
+
+            if (b < 0x80) {
+                accept(ASCII_WHITESPACE[b]);
+            } else if (b >= 0xF0) {
+                pendingBytes = 3;
+                codePoint = b & 0x07;
+            } else if (b >= 0xE0) {
+                pendingBytes = 2;
+                codePoint = b & 0x0F;
+            } else if (b >= 0xC0) {
+                pendingBytes = 1;
+                codePoint = b & 0x1F;
+            } else {
+                // stray continuation byte
+                accept(false);
+            }
+        }
+    }
+
+    public long count() {
+        if (pendingBytes > 0) {
+            pendingBytes = 0;
+            accept(false);
+        }
+        return words;
+    }
+
+    public static long count(InputStream inputStream) throws IOException {
+        WordCounter counter = new WordCounter();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            counter.update(buffer, 0, read);
+        }
+        return counter.count();
+    }
+
+    private void accept(boolean whitespace) {
+        if (whitespace) {
+            inWord = false;
+        } else if (!inWord) {
+            inWord = true;
+            words++;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package pl.kamil.content_service.infrastructure;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import pl.kamil.content_service.application.port.out.FileStorage;
+import pl.kamil.content_service.application.port.out.FileUpload;
+import pl.kamil.content_service.application.port.out.StoredFile;
+import pl.kamil.content_service.domain.ContentCodec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+
+/**
+ * {@link FileStorage} decorator keeping recently read lesson texts and page ranges in a {@link TextCache}.
+ * Stored objects never change after upload, so entries only leave the cache on
+ * LRU eviction or when the file is deleted through this storage.
+ */
+public class CachingFileStorage implements FileStorage {
+
+    private final FileStorage delegate;
+    private final TextCache cache;
+
+    public CachingFileStorage(FileStorage delegate, long maxBytes, MeterRegistry meterRegistry) {
+        this(delegate, new TextCache(maxBytes, meterRegistry));
+    }
+
+    public CachingFileStorage(FileStorage delegate, TextCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public StoredFile storeFile(FileUpload upload) {
+        return delegate.storeFile(upload);
+    }
+
+    @Override
+    public void deleteFile(String key) {
+        cache.invalidate(key);
+        delegate.deleteFile(key);
+    }
+
+    @Override
+    public void deleteFiles(Collection<String> keys) {
+        keys.forEach(cache::invalidate);
+        delegate.deleteFiles(keys);
+    }
+
+    @Override
+    public String getFileContent(String fileKey, ContentCodec codec) {
+        String cached = cache.get(fileKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        String content = delegate.getFileContent(fileKey, codec);
+        cache.put(fileKey, fileKey, content);
+        return content;
+    }
+
+    @Override
+    public String getFileContentRange(String fileKey, ContentCodec codec, long offset, int length) {
+        String rangeKey = TextCache.rangeKey(fileKey, offset, length);
+        String cached = cache.get(rangeKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        String content = delegate.getFileContentRange(fileKey, codec, offset, length);
+        cache.put(rangeKey, fileKey, content);
+        return content;
+    }
+
+    // streamed downloads are meant for whole large texts, caching them would flush everything else
+    @Override
+    public void copyFileContent(String fileKey, ContentCodec codec, long offset, long length, OutputStream out)
+            throws IOException {
+        delegate.copyFileContent(fileKey, codec, offset, length, out);
+    }
+
+    public void invalidate(String fileKey) {
+        cache.invalidate(fileKey);
+    }
+}
@@ -0,0 +1,119 @@
+package pl.kamil.content_service.infrastructure;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import pl.kamil.content_service.shared.security.UserJwt;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * {@link JwtDecoder} decorator remembering tokens that already passed signature and claim validation.
+ * A client sends the same bearer token with every request until it expires, so only its first request
+ * pays for parsing and verification. The caller's id is parsed along with it and kept in the entry, see
+ * {@link UserJwt}. Entries never outlive the token's expiry nor the given TTL; tokens that fail validation,
+ * or carry no valid user id, are not remembered.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final int maxEntries;
+    private final Duration maxTtl;
+    private final Supplier<Instant> now;
+
+    // access-ordered, so the eldest entry is the least recently used token
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > CachingJwtDecoder.this.maxEntries;
+        }
+    };
+    // access order makes every get a write, so lookups take the lock as well
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public CachingJwtDecoder(JwtDecoder delegate, int maxEntries, Duration maxTtl, MeterRegistry meterRegistry) {
+        this(delegate, maxEntries, maxTtl, meterRegistry, Instant::now);
+    }
+
+    CachingJwtDecoder(JwtDecoder delegate, int maxEntries, Duration maxTtl, MeterRegistry meterRegistry, Supplier<Instant> now) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+        this.maxTtl = maxTtl;
+        this.now = now;
+        this.hits = meterRegistry.counter("jwt.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("jwt.cache.requests", "result", "miss");
+        Gauge.builder("jwt.cache.entries", this, CachingJwtDecoder::entryCount)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        Instant at = now.get();
+        UserJwt cached = lookup(token, at);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        UserJwt jwt = UserJwt.from(delegate.decode(token));
+        Instant validUntil = at.plus(maxTtl);
+        if (jwt.getExpiresAt() != null && jwt.getExpiresAt().isBefore(validUntil)) {
+            validUntil = jwt.getExpiresAt();
+        }
+        put(token, new Entry(jwt, validUntil));
+        return jwt;
+    }
+
+    private UserJwt lookup(String token, Instant at) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(token);
+            if (entry == null) {
+                return null;
+            }
+            if (!at.isBefore(entry.validUntil())) {
+                entries.remove(token);
+                return null;
+            }
+            return entry.jwt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(String token, Entry entry) {
+        lock.lock();
+        try {
+            entries.put(token, entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int entryCount() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record Entry(UserJwt jwt, Instant validUntil) {
+    }
+}
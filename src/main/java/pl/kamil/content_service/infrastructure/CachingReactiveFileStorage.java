@@ -0,0 +1,50 @@
+package pl.kamil.content_service.infrastructure;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import pl.kamil.content_service.application.port.out.ReactiveFileStorage;
+import pl.kamil.content_service.domain.ContentCodec;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ReactiveFileStorage} decorator serving texts and page ranges from the {@link TextCache} shared
+ * with {@link CachingFileStorage}. Deletes only go through the blocking stack, which invalidates the
+ * shared cache for both.
+ */
+public class CachingReactiveFileStorage implements ReactiveFileStorage {
+
+    private final ReactiveFileStorage delegate;
+    private final TextCache cache;
+
+    public CachingReactiveFileStorage(ReactiveFileStorage delegate, TextCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    // streamed reads are meant for whole large texts, caching them would flush everything else
+    @Override
+    public Flux<DataBuffer> readFileContent(String fileKey, ContentCodec codec, long offset, long length) {
+        return delegate.readFileContent(fileKey, codec, offset, length);
+    }
+
+    @Override
+    public Mono<String> readFileText(String fileKey, ContentCodec codec) {
+        return cached(fileKey, fileKey, delegate.readFileText(fileKey, codec));
+    }
+
+    @Override
+    public Mono<String> readFileTextRange(String fileKey, ContentCodec codec, long offset, int length) {
+        return cached(TextCache.rangeKey(fileKey, offset, length), fileKey,
+                delegate.readFileTextRange(fileKey, codec, offset, length));
+    }
+
+    private Mono<String> cached(String key, String fileKey, Mono<String> fetch) {
+        return Mono.defer(() -> {
+            String cached = cache.get(key);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            return fetch.doOnNext(content -> cache.put(key, fileKey, content));
+        });
+    }
+}
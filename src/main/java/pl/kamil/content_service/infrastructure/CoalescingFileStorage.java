@@ -0,0 +1,101 @@
+package pl.kamil.content_service.infrastructure;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import pl.kamil.content_service.application.port.out.FileStorage;
+import pl.kamil.content_service.application.port.out.FileUpload;
+import pl.kamil.content_service.application.port.out.StoredFile;
+import pl.kamil.content_service.domain.ContentCodec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * {@link FileStorage} decorator letting concurrent reads of the same object, or the same range of it,
+ * share one download. The first caller fetches, everyone arriving while it is in flight waits for
+ * its result or its failure. Nothing is kept once the download completes; that is the cache's job.
+ */
+public class CoalescingFileStorage implements FileStorage {
+
+    private final FileStorage delegate;
+    private final ConcurrentHashMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+
+    public CoalescingFileStorage(FileStorage delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.coalesced = meterRegistry.counter("file.storage.coalesced");
+    }
+
+    @Override
+    public StoredFile storeFile(FileUpload upload) {
+        return delegate.storeFile(upload);
+    }
+
+    @Override
+    public void deleteFile(String key) {
+        delegate.deleteFile(key);
+    }
+
+    @Override
+    public void deleteFiles(Collection<String> keys) {
+        delegate.deleteFiles(keys);
+    }
+
+    @Override
+    public String getFileContent(String fileKey, ContentCodec codec) {
+        return singleFlight(fileKey + "@" + codec, () -> delegate.getFileContent(fileKey, codec));
+    }
+
+    @Override
+    public String getFileContentRange(String fileKey, ContentCodec codec, long offset, int length) {
+        String key = fileKey + "#" + offset + "+" + length + "@" + codec;
+        return singleFlight(key, () -> delegate.getFileContentRange(fileKey, codec, offset, length));
+    }
+
+    // each caller has its own output stream, there is no result to share
+    @Override
+    public void copyFileContent(String fileKey, ContentCodec codec, long offset, long length, OutputStream out)
+            throws IOException {
+        delegate.copyFileContent(fileKey, codec, offset, length, out);
+    }
+
+    private String singleFlight(String key, Supplier<String> fetch) {
+        CompletableFuture<String> download = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, download);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+
+        try {
+            String content = fetch.get();
+            download.complete(content);
+            return content;
+        } catch (RuntimeException | Error e) {
+            download.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, download);
+        }
+    }
+
+    private static String await(CompletableFuture<String> download) {
+        try {
+            return download.join();
+        } catch (CompletionException e) {
+            // the leader's own exception, as if this caller had made the call
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package pl.kamil.content_service.infrastructure;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.io.buffer.DataBuffer;
+import pl.kamil.content_service.application.port.out.ReactiveFileStorage;
+import pl.kamil.content_service.domain.ContentCodec;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link ReactiveFileStorage} decorator letting concurrent text reads of the same object, or the same
+ * range of it, share one download, as {@link CoalescingFileStorage} does for blocking reads. A shared
+ * download runs to the end even if its first subscriber cancels, the others still wait for it.
+ */
+public class CoalescingReactiveFileStorage implements ReactiveFileStorage {
+
+    private final ReactiveFileStorage delegate;
+    private final ConcurrentHashMap<String, Mono<String>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+
+    public CoalescingReactiveFileStorage(ReactiveFileStorage delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.coalesced = meterRegistry.counter("file.storage.coalesced");
+    }
+
+    // each subscriber consumes and releases its own buffers, there is nothing to share
+    @Override
+    public Flux<DataBuffer> readFileContent(String fileKey, ContentCodec codec, long offset, long length) {
+        return delegate.readFileContent(fileKey, codec, offset, length);
+    }
+
+    @Override
+    public Mono<String> readFileText(String fileKey, ContentCodec codec) {
+        return singleFlight(fileKey + "@" + codec, delegate.readFileText(fileKey, codec));
+    }
+
+    @Override
+    public Mono<String> readFileTextRange(String fileKey, ContentCodec codec, long offset, int length) {
+        String key = fileKey + "#" + offset + "+" + length + "@" + codec;
+        return singleFlight(key, delegate.readFileTextRange(fileKey, codec, offset, length));
+    }
+
+    private Mono<String> singleFlight(String key, Mono<String> fetch) {
+        return Mono.defer(() -> {
+            boolean[] leader = {false};
+            Mono<String> download = inFlight.computeIfAbsent(key, k -> {
+                leader[0] = true;
+                // the source terminates once, while the entry is still this download
+                return fetch.doFinally(signal -> inFlight.remove(k)).cache();
+            });
+            if (!leader[0]) {
+                coalesced.increment();
+            }
+            return download;
+        });
+    }
+}
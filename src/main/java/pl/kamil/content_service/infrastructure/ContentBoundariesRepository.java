@@ -0,0 +1,11 @@
+package pl.kamil.content_service.infrastructure;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import pl.kamil.content_service.domain.ContentBoundaries;
+
+import java.util.UUID;
+
+@Repository
+public interface ContentBoundariesRepository extends JpaRepository<ContentBoundaries, UUID> {
+}
@@ -0,0 +1,155 @@
+package pl.kamil.content_service.infrastructure;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.core.DefaultOAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthentication;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.kamil.content_service.application.port.out.FileStorage;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drains the file deletion outbox in the background, one batch per poll. Rows are claimed in a short
+ * transaction that leases them to this worker, the files are deleted with no transaction open, and the
+ * outcome of each is recorded in a second short transaction. With batch deletes enabled the whole batch
+ * goes out in one call, and only when that fails are the files deleted one by one, so one file the
+ * service keeps refusing only holds back its own row.
+ */
+@Slf4j
+@Component
+public class FileDeletionOutboxWorker {
+
+    private static final String SERVICE_NAME = "content-service";
+
+    private final PendingFileDeletionRepository pendingFileDeletionRepository;
+    private final FileStorage fileStorage;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+    private final boolean batchDeleteEnabled;
+    private final Authentication serviceAuthentication;
+
+    public FileDeletionOutboxWorker(
+            PendingFileDeletionRepository pendingFileDeletionRepository,
+            FileStorage fileStorage,
+            TransactionTemplate transactionTemplate,
+            @Value("${file.deletion.outbox.batch-size:100}") int batchSize,
+            @Value("${file.deletion.outbox.max-attempts:10}") int maxAttempts,
+            @Value("${file.deletion.outbox.initial-backoff-ms:1000}") long initialBackoffMs,
+            @Value("${file.deletion.outbox.max-backoff-ms:600000}") long maxBackoffMs,
+            @Value("${file.deletion.outbox.lease-ms:300000}") long leaseMs,
+            @Value("${file.storage.batch-delete.enabled:false}") boolean batchDeleteEnabled,
+            @Value("${file.storage.service-token:}") String serviceToken) {
+        // without it every delete would be refused and retried until the rows are given up on
+        if (serviceToken.isBlank()) {
+            throw new IllegalStateException("file.storage.service-token is required to delete files from the outbox");
+        }
+        this.pendingFileDeletionRepository = pendingFileDeletionRepository;
+        this.fileStorage = fileStorage;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = Duration.ofMillis(initialBackoffMs);
+        this.maxBackoff = Duration.ofMillis(maxBackoffMs);
+        this.lease = Duration.ofMillis(leaseMs);
+        this.batchDeleteEnabled = batchDeleteEnabled;
+        this.serviceAuthentication = serviceAuthentication(serviceToken);
+    }
+
+    @Scheduled(fixedDelayString = "${file.deletion.outbox.poll-interval-ms:5000}")
+    public void drain() {
+        List<PendingFileDeletion> batch = transactionTemplate.execute(status -> claim());
+        if (batch == null || batch.isEmpty()) {
+            return;
+        }
+
+        List<String> deleted = new ArrayList<>();
+        List<PendingFileDeletion> failed = new ArrayList<>();
+        asService(() -> {
+            if (batchDeleteEnabled && deleteAll(batch)) {
+                batch.forEach(deletion -> deleted.add(deletion.getS3Key()));
+                return;
+            }
+            for (PendingFileDeletion deletion : batch) {
+                try {
+                    fileStorage.deleteFile(deletion.getS3Key());
+                    deleted.add(deletion.getS3Key());
+                } catch (RuntimeException e) {
+                    // deletes are idempotent, so the file is simply retried later
+                    deletion.failed(e.getMessage(), initialBackoff, maxBackoff);
+                    failed.add(deletion);
+                    if (deletion.getAttempts() >= maxAttempts) {
+                        log.error("Giving up deleting file {} after {} attempts", deletion.getS3Key(), deletion.getAttempts());
+                    } else {
+                        log.warn("Deleting file {} from storage failed: {}", deletion.getS3Key(), e.getMessage());
+                    }
+                }
+            }
+        });
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!deleted.isEmpty()) {
+                pendingFileDeletionRepository.deleteAllByIdInBatch(deleted);
+            }
+            if (!failed.isEmpty()) {
+                pendingFileDeletionRepository.saveAll(failed);
+            }
+        });
+        log.info("Deleted {} files from storage, {} failed", deleted.size(), failed.size());
+    }
+
+    // the row locks only last for this transaction, the lease keeps other instances away afterwards
+    private List<PendingFileDeletion> claim() {
+        List<PendingFileDeletion> batch =
+                pendingFileDeletionRepository.findDue(Instant.now(), maxAttempts, Limit.of(batchSize));
+        batch.forEach(deletion -> deletion.claim(lease));
+        return batch;
+    }
+
+    // a failed batch is retried key by key, which tells the files the service refuses from the rest
+    private boolean deleteAll(List<PendingFileDeletion> batch) {
+        try {
+            fileStorage.deleteFiles(batch.stream().map(PendingFileDeletion::getS3Key).toList());
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Deleting {} files from storage in one call failed, deleting them one by one: {}",
+                    batch.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    // a scheduled thread has no caller whose token could be relayed to the file service
+    private void asService(Runnable work) {
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(serviceAuthentication);
+        SecurityContextHolder.setContext(context);
+        try {
+            work.run();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static Authentication serviceAuthentication(String token) {
+        OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, token, null, null);
+        DefaultOAuth2AuthenticatedPrincipal principal = new DefaultOAuth2AuthenticatedPrincipal(
+                SERVICE_NAME, Map.of("sub", SERVICE_NAME), AuthorityUtils.NO_AUTHORITIES);
+        return new BearerTokenAuthentication(principal, accessToken, AuthorityUtils.NO_AUTHORITIES);
+    }
+}
@@ -1,73 +1,205 @@
 package pl.kamil.content_service.infrastructure;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.MultipartBodyBuilder;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestClientException;
-import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import org.springframework.web.util.UriBuilderFactory;
 import pl.kamil.content_service.application.port.out.FileStorage;
+import pl.kamil.content_service.application.port.out.FileUpload;
+import pl.kamil.content_service.application.port.out.StoredFile;
 import pl.kamil.content_service.shared.ErrorMessages;
-import pl.kamil.content_service.api.response.FileUploadResponse;
+import pl.kamil.content_service.domain.ContentCodec;
 import pl.kamil.content_service.infrastructure.exception.FileStorageException;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.stream.Collectors;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 
 @Service
 public class FileStorageClient implements FileStorage {
 
+    private static final int COPY_BUFFER_SIZE = 8192;
+
+    // uploads and everything else go through separately sized connection pools, see RestClientConfig
+    private final RestClient uploadClient;
     private final RestClient restClient;
 
     @Value("${file.upload.url}")
     private String FILE_UPLOAD_URL;
 
-    public FileStorageClient(RestClient restClient) {
+    // the file service has to expose POST /files/batch-delete taking a JSON array of keys
+    @Value("${file.storage.batch-delete.enabled:false}")
+    private boolean batchDeleteEnabled;
+
+    // codec for new uploads; reads use the codec recorded with each object
+    @Value("${file.storage.codec:IDENTITY}")
+    private ContentCodec codec = ContentCodec.IDENTITY;
+
+    public FileStorageClient(
+            @Qualifier("fileUploadRestClient") RestClient uploadClient,
+            @Qualifier("fileDownloadRestClient") RestClient restClient) {
+        this.uploadClient = uploadClient;
         this.restClient = restClient;
     }
 
-    public FileUploadResponse storeFile(MultipartFile file) {
+    public StoredFile storeFile(FileUpload upload) {
 
-        MultipartBodyBuilder multipartBodyBuilder = createMultipartBodybuilder(file);
+        MultipartBodyBuilder multipartBodyBuilder = createMultipartBodybuilder(upload);
         String url = buildUploadUrl();
 
+        FileUploadResponse uploaded;
         try {
-            return restClient.post()
+            uploaded = uploadClient.post()
                     .uri(url)
                     .contentType(MediaType.MULTIPART_FORM_DATA)
                     .body(multipartBodyBuilder.build())
                     .retrieve()
                     .onStatus(HttpStatusCode::isError, (request, response) -> {
-                        throw new FileStorageException(ErrorMessages.FILE_UPLOAD_FAILED);
+                        throw new FileStorageException(ErrorMessages.FILE_UPLOAD_FAILED, response.getStatusCode());
                     })
                     .body(FileUploadResponse.class);
         } catch (RestClientException e) {
-            throw new FileStorageException(ErrorMessages.FILE_UPLOAD_FAILED);
+            throw new FileStorageException(ErrorMessages.FILE_UPLOAD_FAILED, e);
         }
+
+        if (uploaded == null) {
+            throw new FileStorageException(ErrorMessages.FILE_STORAGE_RESPONSE_INVALID);
+        }
+        return uploaded.toStoredFile(codec);
     }
 
     public void deleteFile(String key) {
         try {
             restClient.delete()
                     .uri(FILE_UPLOAD_URL + "/" + key)
-                    .retrieve();
+                    .retrieve()
+                    // already gone counts as deleted, so retried deletes are idempotent
+                    .onStatus(status -> status.value() == HttpStatus.NOT_FOUND.value(), (request, response) -> {
+                    })
+                    .toBodilessEntity();
+        } catch (RestClientException e) {
+            throw new FileStorageException(ErrorMessages.FILE_DELETE_FAILED, e);
+        }
+    }
+
+    public void deleteFiles(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        if (!batchDeleteEnabled) {
+            keys.forEach(this::deleteFile);
+            return;
+        }
+
+        try {
+            restClient.post()
+                    .uri(FILE_UPLOAD_URL + "/batch-delete")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(keys)
+                    .retrieve()
+                    .toBodilessEntity();
         } catch (RestClientException e) {
-            throw new FileStorageException(ErrorMessages.FILE_DELETE_FAILED);
+            throw new FileStorageException(ErrorMessages.FILE_DELETE_FAILED, e);
         }
     }
 
-    public String getFileContent(String fileKey) {
+    public String getFileContent(String fileKey, ContentCodec codec) {
         Resource fileResource = fetchFileResource(fileKey);
-        return readFileContent(fileResource);
+        return readFileContent(fileResource, codec);
+    }
+
+    public String getFileContentRange(String fileKey, ContentCodec codec, long offset, int length) {
+        if (length <= 0) {
+            return "";
+        }
+        String url = FILE_UPLOAD_URL + "/" + fileKey;
+
+        try {
+            return restClient.get()
+                    .uri(url)
+                    .headers(headers -> {
+                        // offsets of an encoded object only exist in the decoded text, so it is read from the start
+                        if (codec.supportsRanges()) {
+                            headers.set(HttpHeaders.RANGE, "bytes=" + offset + "-" + (offset + length - 1));
+                        }
+                    })
+                    .exchange((request, response) -> {
+                        if (!response.getStatusCode().is2xxSuccessful()) {
+                            throw new FileStorageException(ErrorMessages.FILE_STORAGE_RESPONSE_INVALID, response.getStatusCode());
+                        }
+                        return readFileRange(response.getBody(), response.getStatusCode(), codec, offset, length);
+                    });
+        } catch (RestClientException e) {
+            throw new FileStorageException(ErrorMessages.FILE_CONTENT_FETCH_FAILED, e);
+        }
+    }
+
+    public void copyFileContent(String fileKey, ContentCodec codec, long offset, long length, OutputStream out)
+            throws IOException {
+        if (length <= 0) {
+            return;
+        }
+        String url = FILE_UPLOAD_URL + "/" + fileKey;
+        boolean ranged = codec.supportsRanges() && (offset > 0 || length != Long.MAX_VALUE);
+
+        try {
+            restClient.get()
+                    .uri(url)
+                    .headers(headers -> {
+                        if (ranged) {
+                            String last = length == Long.MAX_VALUE ? "" : String.valueOf(offset + length - 1);
+                            headers.set(HttpHeaders.RANGE, "bytes=" + offset + "-" + last);
+                        }
+                    })
+                    .exchange((request, response) -> {
+                        if (!response.getStatusCode().is2xxSuccessful()) {
+                            throw new FileStorageException(ErrorMessages.FILE_STORAGE_RESPONSE_INVALID, response.getStatusCode());
+                        }
+                        InputStream text = codec.decode(response.getBody());
+                        if (response.getStatusCode().value() != HttpStatus.PARTIAL_CONTENT.value()) {
+                            text.skipNBytes(offset);
+                        }
+                        copy(text, length, out);
+                        return null;
+                    });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (RestClientException e) {
+            throw new FileStorageException(ErrorMessages.FILE_CONTENT_FETCH_FAILED, e);
+        }
+    }
+
+    // read failures surface as storage errors, write failures (the client went away) as the IOException itself
+    private static void copy(InputStream text, long length, OutputStream out) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        long remaining = length;
+        while (remaining > 0) {
+            int read = text.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read == -1) {
+                return;
+            }
+            try {
+                out.write(buffer, 0, read);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            remaining -= read;
+        }
     }
 
     private Resource fetchFileResource(String fileKey) {
@@ -85,15 +217,27 @@ public class FileStorageClient implements FileStorage {
         return response.getBody();
     }
 
-    private String readFileContent(Resource resource) {
-        try (InputStream is = resource.getInputStream();
-             BufferedReader reader = new BufferedReader(new InputStreamReader(is))) {
+    private String readFileContent(Resource resource, ContentCodec codec) {
+        // decoded as stored (no line-ending normalisation) so page offsets computed at ingest line up
+        try (InputStream is = codec.decode(resource.getInputStream())) {
 
-            return reader.lines().collect(Collectors.joining("\n"));
+            return StreamUtils.copyToString(is, StandardCharsets.UTF_8);
 
         } catch (RestClientException | IOException e) {
-            throw new FileStorageException(ErrorMessages.FILE_CONTENT_FETCH_FAILED);
+            throw new FileStorageException(ErrorMessages.FILE_CONTENT_FETCH_FAILED, e);
+        }
+    }
+
+    private String readFileRange(InputStream body, HttpStatusCode status, ContentCodec codec, long offset, int length)
+            throws IOException {
+        // decoding stops right after the slice, the rest of the object is never inflated
+        InputStream text = codec.decode(body);
+        // a server ignoring the Range header answers 200 with the whole object, skip to the slice ourselves
+        if (status.value() != HttpStatus.PARTIAL_CONTENT.value()) {
+            text.skipNBytes(offset);
         }
+        byte[] slice = text.readNBytes(length);
+        return new String(slice, StandardCharsets.UTF_8);
     }
 
     private String buildUploadUrl() {
@@ -101,17 +245,41 @@ public class FileStorageClient implements FileStorage {
         return factory.builder().build().toString();
     }
 
-    private MultipartBodyBuilder createMultipartBodybuilder(MultipartFile file) {
+    private MultipartBodyBuilder createMultipartBodybuilder(FileUpload upload) {
         MultipartBodyBuilder multipartBodyBuilder = new MultipartBodyBuilder();
 
         multipartBodyBuilder
-                .part("file", file.getResource())  // Pass as Resource, not bytes
-                .filename(file.getOriginalFilename())
-                .contentType(file.getContentType() != null
-                        ? MediaType.parseMediaType(file.getContentType())
+                .part("file", new UploadResource(upload, codec))  // streamed, never held in memory
+                .filename(upload.filename())
+                .contentType(upload.contentType() != null
+                        ? MediaType.parseMediaType(upload.contentType())
                         : MediaType.APPLICATION_OCTET_STREAM);
 
         return multipartBodyBuilder;
     }
+
+    // the known size and name keep the converter from reading the one-shot stream to find them out
+    private static class UploadResource extends InputStreamResource {
+
+        private final FileUpload upload;
+        private final long contentLength;
+
+        UploadResource(FileUpload upload, ContentCodec codec) {
+            super(codec.encode(upload.content()));
+            this.upload = upload;
+            // the encoded size is only known once it has been sent
+            this.contentLength = codec == ContentCodec.IDENTITY ? upload.size() : -1;
+        }
+
+        @Override
+        public long contentLength() {
+            return contentLength;
+        }
+
+        @Override
+        public String getFilename() {
+            return upload.filename();
+        }
+    }
 }
 
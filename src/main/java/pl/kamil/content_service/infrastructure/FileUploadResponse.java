@@ -0,0 +1,30 @@
+package pl.kamil.content_service.infrastructure;
+
+import pl.kamil.content_service.application.port.out.StoredFile;
+import pl.kamil.content_service.domain.ContentCodec;
+import pl.kamil.content_service.infrastructure.exception.FileStorageException;
+import pl.kamil.content_service.shared.ErrorMessages;
+
+/**
+ * The file service's answer to an upload. {@code codec} is how the service holds the bytes; a service
+ * that does not report it keeps them as they were sent.
+ */
+record FileUploadResponse(
+        String s3Key,
+        String codec
+) {
+
+    StoredFile toStoredFile(ContentCodec sentWith) {
+        if (s3Key == null) {
+            throw new FileStorageException(ErrorMessages.FILE_STORAGE_RESPONSE_INVALID);
+        }
+        if (codec == null) {
+            return new StoredFile(s3Key, sentWith);
+        }
+        try {
+            return new StoredFile(s3Key, ContentCodec.valueOf(codec));
+        } catch (IllegalArgumentException e) {
+            throw new FileStorageException(ErrorMessages.FILE_STORAGE_RESPONSE_INVALID, e);
+        }
+    }
+}
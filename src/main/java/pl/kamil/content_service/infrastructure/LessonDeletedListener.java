@@ -6,24 +6,32 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.event.TransactionPhase;
 import org.springframework.transaction.event.TransactionalEventListener;
 import pl.kamil.content_service.application.event.LessonDeleteEvent;
-import pl.kamil.content_service.infrastructure.exception.FileStorageException;
-import pl.kamil.content_service.application.port.out.FileStorage;
+import pl.kamil.content_service.application.event.LessonsDeleteEvent;
+
+import java.util.List;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class LessonDeletedListener {
-    private final FileStorage fileStorage;
+    private final PendingFileDeletionRepository pendingFileDeletionRepository;
 
-    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    // runs inside the deleting transaction, the file itself is removed by FileDeletionOutboxWorker
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
     public void onLessonDeleted(LessonDeleteEvent event) {
-        try {
-            fileStorage.deleteFile(event.s3Key());
-            log.info("File deleted successfully");
-        } catch (FileStorageException e) {
-            log.error("S3 deletion failed (expected)");
-        } catch (Exception e) {
-            log.error("S3 deletion failed (unexpected)");
-        }
+        List<PendingFileDeletion> deletions = event.s3Keys().stream()
+                .map(s3Key -> PendingFileDeletion.of(s3Key, event.lessonId()))
+                .toList();
+        pendingFileDeletionRepository.saveAll(deletions);
+        log.debug("Scheduled deletion of files {} for lesson {}", event.s3Keys(), event.lessonId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onLessonsDeleted(LessonsDeleteEvent event) {
+        List<PendingFileDeletion> deletions = event.s3Keys().stream()
+                .map(s3Key -> PendingFileDeletion.of(s3Key, null))
+                .toList();
+        pendingFileDeletionRepository.saveAll(deletions);
+        log.debug("Scheduled deletion of {} files for {} lessons", deletions.size(), event.lessonIds().size());
     }
 }
@@ -1,15 +1,126 @@
 package pl.kamil.content_service.infrastructure;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import pl.kamil.content_service.domain.Content;
+import pl.kamil.content_service.domain.ContentVersion;
 import pl.kamil.content_service.domain.Lesson;
+import pl.kamil.content_service.domain.LessonFileKey;
+import pl.kamil.content_service.domain.LessonSummary;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface LessonRepository extends JpaRepository<Lesson, UUID> {
 
-    Page<Lesson> findAllByCreatedBy(UUID userId, Pageable pageable);
+    @Query(value = """
+            select new pl.kamil.content_service.domain.LessonSummary(l.id, l.title, l.createdBy, l.createdAt, l.updatedAt)
+            from Lesson l
+            where l.createdBy = :userId
+            """,
+            countQuery = "select count(l) from Lesson l where l.createdBy = :userId")
+    Page<LessonSummary> findSummariesByCreatedBy(@Param("userId") UUID userId, Pageable pageable);
+
+    // lookups of a single lesson are answered from the query cache when lesson.cache.enabled is set
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("""
+            select new pl.kamil.content_service.domain.LessonSummary(l.id, l.title, l.createdBy, l.createdAt, l.updatedAt)
+            from Lesson l
+            where l.id = :id
+            """)
+    Optional<LessonSummary> findSummaryById(@Param("id") UUID id);
+
+    long countByCreatedBy(UUID userId);
+
+    @Query("""
+            select new pl.kamil.content_service.domain.LessonSummary(l.id, l.title, l.createdBy, l.createdAt, l.updatedAt)
+            from Lesson l
+            where l.createdBy = :userId
+            order by l.createdAt desc, l.id desc
+            """)
+    List<LessonSummary> findFirstByCreatedBy(@Param("userId") UUID userId, Limit limit);
+
+    // keyset continuation: rows strictly after (createdAt, id) in the listing order
+    @Query("""
+            select new pl.kamil.content_service.domain.LessonSummary(l.id, l.title, l.createdBy, l.createdAt, l.updatedAt)
+            from Lesson l
+            where l.createdBy = :userId
+              and (l.createdAt < :createdAt or (l.createdAt = :createdAt and l.id < :id))
+            order by l.createdAt desc, l.id desc
+            """)
+    List<LessonSummary> findNextByCreatedBy(
+            @Param("userId") UUID userId,
+            @Param("createdAt") Instant createdAt,
+            @Param("id") UUID id,
+            Limit limit);
+
+    // owner-filtered lookups: an empty result means missing or someone else's, findCreatedById tells which
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("""
+            select c from Content c left join fetch c.chunks
+            where c.lesson.id = :lessonId and c.lesson.createdBy = :userId
+            """)
+    Optional<Content> findContentByLessonIdAndCreatedBy(@Param("lessonId") UUID lessonId, @Param("userId") UUID userId);
+
+    // one row per stored object of the text, a single row with a null key when there is no content
+    @Query("""
+            select new pl.kamil.content_service.domain.LessonFileKey(l.id, l.createdBy, coalesce(k.s3Key, c.s3Key))
+            from Lesson l left join l.content c left join c.chunks k
+            where l.id = :id and l.createdBy = :userId
+            """)
+    List<LessonFileKey> findFileKeysByIdAndCreatedBy(@Param("id") UUID id, @Param("userId") UUID userId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select l.createdBy from Lesson l where l.id = :id")
+    Optional<UUID> findCreatedById(@Param("id") UUID id);
+
+    // a lesson without content comes back with null content fields
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("""
+            select new pl.kamil.content_service.domain.ContentVersion(l.id, l.createdBy, c.id, c.checksum, c.createdAt)
+            from Lesson l left join l.content c
+            where l.id = :id
+            """)
+    Optional<ContentVersion> findContentVersionById(@Param("id") UUID id);
+
+    @Query("""
+            select new pl.kamil.content_service.domain.LessonFileKey(l.id, l.createdBy, c.s3Key)
+            from Lesson l left join l.content c
+            where l.id in :ids
+            """)
+    List<LessonFileKey> findFileKeysByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query("""
+            select new pl.kamil.content_service.domain.LessonFileKey(l.id, l.createdBy, c.s3Key)
+            from Lesson l left join l.content c
+            where l.createdBy = :userId and l.createdAt < :olderThan
+            """)
+    List<LessonFileKey> findFileKeysByCreatedByAndCreatedAtBefore(
+            @Param("userId") UUID userId,
+            @Param("olderThan") Instant olderThan);
+
+    @Query("select k.s3Key from Content c join c.chunks k where c.lesson.id in :lessonIds")
+    List<String> findChunkKeysByLessonIdIn(@Param("lessonIds") Collection<UUID> lessonIds);
+
+    // set-based deletes, they bypass cascades so content goes first
+    @Modifying
+    @Query("delete from Content c where c.lesson.id in :lessonIds")
+    int deleteContentByLessonIdIn(@Param("lessonIds") Collection<UUID> lessonIds);
+
+    @Modifying
+    @Query("delete from Lesson l where l.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<UUID> ids);
 }
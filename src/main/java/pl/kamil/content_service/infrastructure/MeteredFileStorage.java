@@ -0,0 +1,199 @@
+package pl.kamil.content_service.infrastructure;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import pl.kamil.content_service.application.port.out.FileStorage;
+import pl.kamil.content_service.application.port.out.FileUpload;
+import pl.kamil.content_service.application.port.out.StoredFile;
+import pl.kamil.content_service.domain.ContentCodec;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * {@link FileStorage} decorator timing every call that reaches the file service and recording
+ * the text bytes sent or received, per method and outcome. It sits below the cache, so the
+ * meters describe real storage traffic.
+ */
+public class MeteredFileStorage implements FileStorage {
+
+    private final FileStorage delegate;
+    private final MeterRegistry meterRegistry;
+
+    public MeteredFileStorage(FileStorage delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public StoredFile storeFile(FileUpload upload) {
+        CountingInputStream content = new CountingInputStream(upload.content());
+        StoredFile response = time("store", () -> delegate.storeFile(
+                new FileUpload(upload.filename(), upload.contentType(), upload.size(), content)));
+        recordBytes(meterRegistry, "store", content.count);
+        return response;
+    }
+
+    @Override
+    public void deleteFile(String key) {
+        time("delete", () -> {
+            delegate.deleteFile(key);
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteFiles(Collection<String> keys) {
+        time("delete_batch", () -> {
+            delegate.deleteFiles(keys);
+            return null;
+        });
+    }
+
+    @Override
+    public String getFileContent(String fileKey, ContentCodec codec) {
+        String content = time("read", () -> delegate.getFileContent(fileKey, codec));
+        recordBytes(meterRegistry, "read", utf8Length(content));
+        return content;
+    }
+
+    @Override
+    public String getFileContentRange(String fileKey, ContentCodec codec, long offset, int length) {
+        String content = time("read_range", () -> delegate.getFileContentRange(fileKey, codec, offset, length));
+        recordBytes(meterRegistry, "read_range", utf8Length(content));
+        return content;
+    }
+
+    @Override
+    public void copyFileContent(String fileKey, ContentCodec codec, long offset, long length, OutputStream out)
+            throws IOException {
+        CountingOutputStream counted = new CountingOutputStream(out);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            delegate.copyFileContent(fileKey, codec, offset, length, counted);
+            outcome = "success";
+        } finally {
+            sample.stop(requestTimer(meterRegistry, "copy", outcome));
+            recordBytes(meterRegistry, "copy", counted.count);
+        }
+    }
+
+    private <T> T time(String method, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            T result = call.get();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(requestTimer(meterRegistry, method, outcome));
+        }
+    }
+
+    // shared with MeteredReactiveFileStorage, both stacks report the same meters
+    static Timer requestTimer(MeterRegistry meterRegistry, String method, String outcome) {
+        return Timer.builder("file.storage.requests")
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    static void recordBytes(MeterRegistry meterRegistry, String method, long bytes) {
+        DistributionSummary.builder("file.storage.payload")
+                .baseUnit("bytes")
+                .tag("method", method)
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(bytes);
+    }
+
+    // the decoded text as UTF-8; what crossed the wire is smaller when the object is compressed
+    private static long utf8Length(String text) {
+        long length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isSurrogate(c)) {
+                // two per pair, four bytes for the code point
+                length += 2;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        // FilterOutputStream would write byte by byte
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            out.write(buffer, offset, length);
+            count += length;
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = in.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
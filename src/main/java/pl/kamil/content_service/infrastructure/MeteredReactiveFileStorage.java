@@ -0,0 +1,49 @@
+package pl.kamil.content_service.infrastructure;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.io.buffer.DataBuffer;
+import pl.kamil.content_service.application.port.out.ReactiveFileStorage;
+import pl.kamil.content_service.domain.ContentCodec;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+
+/**
+ * {@link ReactiveFileStorage} decorator recording the same meters as {@link MeteredFileStorage}: each
+ * read is timed from subscription until it completes, fails or is cancelled, and its text bytes counted.
+ */
+public class MeteredReactiveFileStorage implements ReactiveFileStorage {
+
+    private final ReactiveFileStorage delegate;
+    private final MeterRegistry meterRegistry;
+
+    public MeteredReactiveFileStorage(ReactiveFileStorage delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Flux<DataBuffer> readFileContent(String fileKey, ContentCodec codec, long offset, long length) {
+        String method = offset == 0 && length == Long.MAX_VALUE ? "read" : "read_range";
+        Flux<DataBuffer> content = delegate.readFileContent(fileKey, codec, offset, length);
+        return Flux.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            long[] bytes = {0};
+            return content
+                    .doOnNext(buffer -> bytes[0] += buffer.readableByteCount())
+                    .doFinally(signal -> {
+                        sample.stop(MeteredFileStorage.requestTimer(meterRegistry, method, outcome(signal)));
+                        MeteredFileStorage.recordBytes(meterRegistry, method, bytes[0]);
+                    });
+        });
+    }
+
+    // a cancelled read is the client going away, not the file service failing
+    private static String outcome(SignalType signal) {
+        return switch (signal) {
+            case ON_COMPLETE -> "success";
+            case CANCEL -> "cancelled";
+            default -> "error";
+        };
+    }
+}
@@ -0,0 +1,87 @@
+package pl.kamil.content_service.infrastructure;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Outbox row for a stored file that still has to be removed from the file service.
+ * Written in the transaction that deletes the lesson and removed once the file is gone.
+ */
+@Entity
+@Getter
+@Table(name = "file_deletion_outbox", indexes = {
+        @Index(name = "idx_file_deletion_outbox_next_attempt", columnList = "next_attempt_at")
+})
+public class PendingFileDeletion implements Persistable<String> {
+
+    // a file belongs to exactly one lesson, so its key identifies the row
+    @Id
+    private String s3Key;
+    private UUID lessonId;
+
+    private int attempts;
+    private Instant nextAttemptAt;
+    private Instant createdAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    // rows are only ever created once, persisting them directly saves a select per row on save
+    @Transient
+    private boolean persisted;
+
+    protected PendingFileDeletion() {
+    }
+
+    private PendingFileDeletion(String s3Key, UUID lessonId) {
+        if (s3Key == null || s3Key.isBlank()) {
+            throw new IllegalArgumentException("S3 key cannot be null or blank");
+        }
+        this.s3Key = s3Key;
+        this.lessonId = lessonId;
+        this.createdAt = Instant.now();
+        this.nextAttemptAt = createdAt;
+    }
+
+    public static PendingFileDeletion of(String s3Key, UUID lessonId) {
+        return new PendingFileDeletion(s3Key, lessonId);
+    }
+
+    @Override
+    public String getId() {
+        return s3Key;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.persisted = true;
+    }
+
+    // keeps other workers away once the row lock is released; an outcome recorded later replaces it
+    public void claim(Duration lease) {
+        this.nextAttemptAt = Instant.now().plus(lease);
+    }
+
+    public void failed(String error, Duration initialBackoff, Duration maxBackoff) {
+        attempts++;
+        // exponential backoff: initial, 2x, 4x ... capped at maxBackoff
+        long factor = 1L << Math.min(attempts - 1, 30);
+        Duration backoff = initialBackoff.multipliedBy(factor);
+        if (backoff.compareTo(maxBackoff) > 0 || backoff.isNegative()) {
+            backoff = maxBackoff;
+        }
+        this.nextAttemptAt = Instant.now().plus(backoff);
+        this.lastError = error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+}
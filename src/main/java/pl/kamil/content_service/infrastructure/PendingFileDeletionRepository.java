@@ -0,0 +1,28 @@
+package pl.kamil.content_service.infrastructure;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface PendingFileDeletionRepository extends JpaRepository<PendingFileDeletion, String> {
+
+    // SKIP LOCKED (-2) lets several instances drain the outbox without picking the same rows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            select d from PendingFileDeletion d
+            where d.nextAttemptAt <= :now and d.attempts < :maxAttempts
+            order by d.nextAttemptAt
+            """)
+    List<PendingFileDeletion> findDue(@Param("now") Instant now, @Param("maxAttempts") int maxAttempts, Limit limit);
+}
@@ -0,0 +1,269 @@
+package pl.kamil.content_service.infrastructure;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import pl.kamil.content_service.application.port.out.FileStorage;
+import pl.kamil.content_service.application.port.out.FileUpload;
+import pl.kamil.content_service.application.port.out.StoredFile;
+import pl.kamil.content_service.domain.ContentCodec;
+import pl.kamil.content_service.infrastructure.exception.FileStorageException;
+import pl.kamil.content_service.shared.ErrorMessages;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * {@link FileStorage} decorator that fails fast through a {@link CircuitBreaker} while the file service
+ * is unhealthy, and hedges reads: a read still unanswered after the recent latency percentile is sent
+ * a second time, and whichever attempt answers first wins. Uploads are never hedged, their stream
+ * can only be read once.
+ * <p>
+ * Only outages count against the breaker: 5xx answers, I/O errors and timeouts. A 4xx or a missing
+ * file means the service answered. Deletes bypass the breaker altogether, so background cleanup
+ * retrying a stubborn key cannot open it for the readers.
+ */
+public class ResilientFileStorage implements FileStorage {
+
+    private final FileStorage delegate;
+    private final CircuitBreaker circuitBreaker;
+    private final ExecutorService executor;
+    // full objects and small ranges take very different times, each is hedged on its own latencies
+    private final HedgeDelay readDelay;
+    private final HedgeDelay rangeReadDelay;
+
+    private final Counter rejected;
+    private final Counter hedgesFired;
+    private final Counter hedgesWon;
+
+    /**
+     * @param executor runs read attempts when hedging; {@code null} disables hedging
+     * @param hedgeDelays creates the hedge delay of each kind of read
+     */
+    public ResilientFileStorage(
+            FileStorage delegate,
+            CircuitBreaker circuitBreaker,
+            ExecutorService executor,
+            Supplier<HedgeDelay> hedgeDelays,
+            MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+        this.executor = executor;
+        this.readDelay = hedgeDelays.get();
+        this.rangeReadDelay = hedgeDelays.get();
+        this.rejected = meterRegistry.counter("file.storage.circuit.rejected");
+        this.hedgesFired = meterRegistry.counter("file.storage.hedge", "result", "fired");
+        this.hedgesWon = meterRegistry.counter("file.storage.hedge", "result", "won");
+        Gauge.builder("file.storage.circuit.open", circuitBreaker, breaker -> breaker.state() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public StoredFile storeFile(FileUpload upload) {
+        return guarded(() -> delegate.storeFile(upload));
+    }
+
+    @Override
+    public void deleteFile(String key) {
+        delegate.deleteFile(key);
+    }
+
+    @Override
+    public void deleteFiles(Collection<String> keys) {
+        delegate.deleteFiles(keys);
+    }
+
+    @Override
+    public String getFileContent(String fileKey, ContentCodec codec) {
+        return guarded(() -> hedged(readDelay, () -> delegate.getFileContent(fileKey, codec)));
+    }
+
+    @Override
+    public String getFileContentRange(String fileKey, ContentCodec codec, long offset, int length) {
+        return guarded(() -> hedged(rangeReadDelay, () -> delegate.getFileContentRange(fileKey, codec, offset, length)));
+    }
+
+    // not hedged, two attempts cannot share the output stream
+    @Override
+    public void copyFileContent(String fileKey, ContentCodec codec, long offset, long length, OutputStream out)
+            throws IOException {
+        if (!circuitBreaker.tryAcquire()) {
+            rejected.increment();
+            throw new FileStorageException(ErrorMessages.FILE_STORAGE_UNAVAILABLE);
+        }
+        try {
+            delegate.copyFileContent(fileKey, codec, offset, length, out);
+            circuitBreaker.onSuccess();
+        } catch (IOException e) {
+            // the client went away, the file service itself answered
+            circuitBreaker.onSuccess();
+            throw e;
+        } catch (RuntimeException | Error e) {
+            recordFailure(e);
+            throw e;
+        }
+    }
+
+    private <T> T guarded(Supplier<T> call) {
+        if (!circuitBreaker.tryAcquire()) {
+            rejected.increment();
+            throw new FileStorageException(ErrorMessages.FILE_STORAGE_UNAVAILABLE);
+        }
+        try {
+            T result = call.get();
+            circuitBreaker.onSuccess();
+            return result;
+        } catch (RuntimeException | Error e) {
+            recordFailure(e);
+            throw e;
+        }
+    }
+
+    private void recordFailure(Throwable failure) {
+        if (isOutage(failure)) {
+            circuitBreaker.onFailure();
+        } else {
+            // the service answered, it just refused this one request
+            circuitBreaker.onSuccess();
+        }
+    }
+
+    static boolean isOutage(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof FileStorageException e && e.getUpstreamStatus() != null) {
+                return e.getUpstreamStatus().is5xxServerError();
+            }
+            if (t instanceof RestClientResponseException e) {
+                return e.getStatusCode().is5xxServerError();
+            }
+            if (t instanceof WebClientResponseException e) {
+                return e.getStatusCode().is5xxServerError();
+            }
+            if (t instanceof IOException || t instanceof TimeoutException
+                    || t instanceof ResourceAccessException || t instanceof WebClientRequestException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private <T> T hedged(HedgeDelay hedgeDelay, Supplier<T> read) {
+        if (executor == null) {
+            return read.get();
+        }
+        long start = System.nanoTime();
+        ExecutorCompletionService<T> attempts = new ExecutorCompletionService<>(executor);
+        List<Future<T>> submitted = new ArrayList<>(2);
+        submitted.add(attempts.submit(read::get));
+        try {
+            Future<T> done = attempts.poll(hedgeDelay.current(), TimeUnit.NANOSECONDS);
+            if (done == null) {
+                hedgesFired.increment();
+                submitted.add(attempts.submit(read::get));
+                done = attempts.take();
+                if (failed(done)) {
+                    // the other attempt may still succeed
+                    done = attempts.take();
+                }
+                if (done == submitted.get(1) && !failed(done)) {
+                    hedgesWon.increment();
+                }
+            }
+            T result = resultOf(done);
+            hedgeDelay.record(System.nanoTime() - start);
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileStorageException(ErrorMessages.FILE_STORAGE_UNAVAILABLE, e);
+        } finally {
+            // interrupts the losing attempt, which drops its connection rather than reading on
+            submitted.forEach(attempt -> attempt.cancel(true));
+        }
+    }
+
+    private static boolean failed(Future<?> attempt) {
+        return attempt.state() != Future.State.SUCCESS;
+    }
+
+    private static <T> T resultOf(Future<T> attempt) throws InterruptedException {
+        try {
+            return attempt.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new FileStorageException(ErrorMessages.FILE_STORAGE_UNAVAILABLE, e.getCause());
+        }
+    }
+
+    /**
+     * How long a read may take before it is hedged: the given percentile of recent read latencies,
+     * kept within bounds. Until enough reads have been seen the upper bound is used.
+     */
+    public static class HedgeDelay {
+
+        private static final int WINDOW = 512;
+        private static final int RECOMPUTE_EVERY = 64;
+
+        private final double percentile;
+        private final long minNanos;
+        private final long maxNanos;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final long[] samples = new long[WINDOW];
+        private int sampleCount;
+        private int next;
+        private volatile long currentNanos;
+
+        public HedgeDelay(double percentile, Duration min, Duration max) {
+            if (percentile <= 0 || percentile >= 1) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 1");
+            }
+            this.percentile = percentile;
+            this.minNanos = min.toNanos();
+            this.maxNanos = max.toNanos();
+            this.currentNanos = maxNanos;
+        }
+
+        public long current() {
+            return currentNanos;
+        }
+
+        void record(long nanos) {
+            lock.lock();
+            try {
+                samples[next] = nanos;
+                next = (next + 1) % WINDOW;
+                sampleCount = Math.min(sampleCount + 1, WINDOW);
+                if (sampleCount >= RECOMPUTE_EVERY && next % RECOMPUTE_EVERY == 0) {
+                    long[] sorted = Arrays.copyOf(samples, sampleCount);
+                    Arrays.sort(sorted);
+                    long value = sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)];
+                    currentNanos = Math.max(minNanos, Math.min(maxNanos, value));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
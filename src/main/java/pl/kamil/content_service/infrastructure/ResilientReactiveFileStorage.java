@@ -0,0 +1,51 @@
+package pl.kamil.content_service.infrastructure;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.io.buffer.DataBuffer;
+import pl.kamil.content_service.application.port.out.ReactiveFileStorage;
+import pl.kamil.content_service.domain.ContentCodec;
+import pl.kamil.content_service.infrastructure.exception.FileStorageException;
+import pl.kamil.content_service.shared.ErrorMessages;
+import reactor.core.publisher.Flux;
+
+/**
+ * {@link ReactiveFileStorage} decorator failing fast through the {@link CircuitBreaker} shared with
+ * {@link ResilientFileStorage}, counting outages the same way. Reads are not hedged: a slow reactive
+ * read holds no thread, and duplicating it would only add load to a struggling service.
+ */
+public class ResilientReactiveFileStorage implements ReactiveFileStorage {
+
+    private final ReactiveFileStorage delegate;
+    private final CircuitBreaker circuitBreaker;
+    private final Counter rejected;
+
+    public ResilientReactiveFileStorage(
+            ReactiveFileStorage delegate, CircuitBreaker circuitBreaker, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+        this.rejected = meterRegistry.counter("file.storage.circuit.rejected");
+    }
+
+    @Override
+    public Flux<DataBuffer> readFileContent(String fileKey, ContentCodec codec, long offset, long length) {
+        Flux<DataBuffer> content = delegate.readFileContent(fileKey, codec, offset, length);
+        return Flux.defer(() -> {
+            if (!circuitBreaker.tryAcquire()) {
+                rejected.increment();
+                return Flux.error(new FileStorageException(ErrorMessages.FILE_STORAGE_UNAVAILABLE));
+            }
+            return content
+                    .doOnComplete(circuitBreaker::onSuccess)
+                    // the client went away, the file service may well have answered
+                    .doOnCancel(circuitBreaker::onSuccess)
+                    .doOnError(e -> {
+                        if (ResilientFileStorage.isOutage(e)) {
+                            circuitBreaker.onFailure();
+                        } else {
+                            circuitBreaker.onSuccess();
+                        }
+                    });
+        });
+    }
+}
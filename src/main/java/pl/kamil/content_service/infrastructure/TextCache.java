@@ -0,0 +1,161 @@
+package pl.kamil.content_service.infrastructure;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Recently read lesson texts and page ranges, bounded by their size in memory. Shared by the blocking
+ * and the reactive storage stacks, so a text read through either is a hit for both, and a delete
+ * through either drops it for both. The keys cached for each object are indexed, so a delete only
+ * touches the entries of that object.
+ */
+@Slf4j
+public class TextCache {
+
+    private final long maxBytes;
+
+    // access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // the whole object and its ranges, by the object they were read from
+    private final Map<String, Set<String>> keysByFile = new HashMap<>();
+    private long currentBytes;
+    // a lock rather than synchronized, which would pin the carrier of a waiting virtual thread
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public TextCache(long maxBytes, MeterRegistry meterRegistry) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.maxBytes = maxBytes;
+        this.hits = meterRegistry.counter("file.storage.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("file.storage.cache.requests", "result", "miss");
+        this.evictions = meterRegistry.counter("file.storage.cache.evictions");
+        Gauge.builder("file.storage.cache.size", this, TextCache::currentBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("file.storage.cache.entries", this, TextCache::entryCount)
+                .register(meterRegistry);
+    }
+
+    public static String rangeKey(String fileKey, long offset, int length) {
+        return fileKey + "#" + offset + "+" + length;
+    }
+
+    // counted as a hit or a miss
+    public String get(String key) {
+        String cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return cached;
+    }
+
+    // drops the whole object and every cached range of it
+    public void invalidate(String fileKey) {
+        lock.lock();
+        try {
+            Set<String> keys = keysByFile.remove(fileKey);
+            if (keys == null) {
+                return;
+            }
+            for (String key : keys) {
+                Entry entry = entries.remove(key);
+                if (entry != null) {
+                    currentBytes -= entry.weight();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(String key, String fileKey, String content) {
+        lock.lock();
+        try {
+            Entry entry = new Entry(fileKey, content);
+            if (entry.weight() > maxBytes) {
+                log.debug("Content for key {} ({} bytes) exceeds cache capacity, not caching", key, entry.weight());
+                return;
+            }
+
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                currentBytes -= previous.weight();
+                unindex(key, previous.fileKey());
+            }
+            currentBytes += entry.weight();
+            keysByFile.computeIfAbsent(fileKey, file -> new HashSet<>()).add(key);
+
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (currentBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, Entry> evicted = eldest.next();
+                currentBytes -= evicted.getValue().weight();
+                eldest.remove();
+                unindex(evicted.getKey(), evicted.getValue().fileKey());
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // called with the lock held
+    private void unindex(String key, String fileKey) {
+        Set<String> keys = keysByFile.get(fileKey);
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+            keysByFile.remove(fileKey);
+        }
+    }
+
+    private String lookup(String key) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            return entry != null ? entry.content() : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long currentBytes() {
+        lock.lock();
+        try {
+            return currentBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int entryCount() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record Entry(String fileKey, String content) {
+
+        // upper bound of the heap taken by the characters, two bytes per UTF-16 unit
+        long weight() {
+            return 2L * content.length();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package pl.kamil.content_service.infrastructure;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.ConnectTimeoutException;
+import org.apache.hc.client5.http.classic.ExecChain;
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ConnectionRequestTimeoutException;
+import org.apache.hc.core5.http.HttpException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+
+/**
+ * Counts timed out calls to the file service by pool and by the phase that timed out.
+ * Lives in the HttpClient exec chain rather than as a RestClient interceptor, so request bodies stay streamed.
+ */
+public class TimeoutMetricsExecHandler implements ExecChainHandler {
+
+    private final String poolName;
+    private final MeterRegistry meterRegistry;
+
+    public TimeoutMetricsExecHandler(String poolName, MeterRegistry meterRegistry) {
+        this.poolName = poolName;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ClassicHttpResponse execute(ClassicHttpRequest request, ExecChain.Scope scope, ExecChain chain)
+            throws IOException, HttpException {
+        try {
+            return chain.proceed(request, scope);
+        } catch (InterruptedIOException e) {
+            meterRegistry.counter("file.storage.http.timeouts", "pool", poolName, "type", timeoutType(e)).increment();
+            throw e;
+        }
+    }
+
+    private static String timeoutType(InterruptedIOException e) {
+        if (e instanceof ConnectionRequestTimeoutException) {
+            return "pool";
+        }
+        if (e instanceof ConnectTimeoutException) {
+            return "connect";
+        }
+        if (e instanceof SocketTimeoutException) {
+            return "response";
+        }
+        return "other";
+    }
+}
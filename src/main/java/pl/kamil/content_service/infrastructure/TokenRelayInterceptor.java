@@ -1,24 +1,51 @@
 package pl.kamil.content_service.infrastructure;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
 import org.springframework.http.client.ClientHttpRequestExecution;
-import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpRequestInitializer;
 import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.AbstractOAuth2TokenAuthenticationToken;
 
 import java.io.IOException;
 
-public class TokenRelayInterceptor implements ClientHttpRequestInterceptor {
+/**
+ * Relays the caller's bearer token to the file service. Registered as an initializer, because any
+ * interceptor makes RestClient buffer the request body, which would defeat streamed uploads.
+ */
+@Slf4j
+public class TokenRelayInterceptor implements ClientHttpRequestInterceptor, ClientHttpRequestInitializer {
     @Override
     public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
-        var auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth != null && auth.getPrincipal() instanceof Jwt jwt) {
-            System.out.println("Relaying token for user: " + jwt.getSubject());
-            request.getHeaders().setBearerAuth(jwt.getTokenValue());
+        relayToken(request.getHeaders());
+        return execution.execute(request, body);
+    }
+
+    @Override
+    public void initialize(ClientHttpRequest request) {
+        relayToken(request.getHeaders());
+    }
+
+    private void relayToken(HttpHeaders headers) {
+        String token = currentToken();
+        if (token != null) {
+            headers.setBearerAuth(token);
         } else {
-            System.out.println("DEBUG: No JWT found in SecurityContext! Outgoing request will be anonymous.");
+            log.debug("No bearer token found in SecurityContext, outgoing request will be anonymous");
         }
-        return execution.execute(request, body);
+    }
+
+    // the caller's JWT, or the service token background work runs under, see FileDeletionOutboxWorker
+    static String currentToken() {
+        var auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth instanceof AbstractOAuth2TokenAuthenticationToken<?> tokenAuthentication) {
+            log.debug("Relaying token for: {}", auth.getName());
+            return tokenAuthentication.getToken().getTokenValue();
+        }
+        return null;
     }
 }
@@ -0,0 +1,252 @@
+package pl.kamil.content_service.infrastructure;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.http.client.reactive.ClientHttpRequest;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientException;
+import pl.kamil.content_service.application.port.out.FileStorage;
+import pl.kamil.content_service.application.port.out.FileUpload;
+import pl.kamil.content_service.application.port.out.ReactiveFileStorage;
+import pl.kamil.content_service.application.port.out.StoredFile;
+import pl.kamil.content_service.domain.ContentCodec;
+import pl.kamil.content_service.infrastructure.exception.FileStorageException;
+import pl.kamil.content_service.shared.ErrorMessages;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClientRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * {@link FileStorage} on a non-blocking HTTP client, selected with {@code file.storage.client=webclient}.
+ * Reads are also offered as {@link ReactiveFileStorage}; the blocking methods wait on the same calls, so
+ * the decorators in front of the storage keep working unchanged.
+ */
+public class WebClientFileStorage implements FileStorage, ReactiveFileStorage {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final WebClient webClient;
+    private final String fileUploadUrl;
+    private final boolean batchDeleteEnabled;
+    // codec for new uploads; reads use the codec recorded with each object
+    private final ContentCodec codec;
+    private final Duration uploadResponseTimeout;
+
+    public WebClientFileStorage(
+            WebClient webClient,
+            String fileUploadUrl,
+            boolean batchDeleteEnabled,
+            ContentCodec codec,
+            Duration uploadResponseTimeout) {
+        this.webClient = webClient;
+        this.fileUploadUrl = fileUploadUrl;
+        this.batchDeleteEnabled = batchDeleteEnabled;
+        this.codec = codec;
+        this.uploadResponseTimeout = uploadResponseTimeout;
+    }
+
+    @Override
+    public StoredFile storeFile(FileUpload upload) {
+        // the stream is read on a worker as the request body is written, never as a whole
+        Flux<DataBuffer> body = DataBufferUtils.readInputStream(
+                        () -> codec.encode(upload.content()), DefaultDataBufferFactory.sharedInstance, BUFFER_SIZE)
+                .subscribeOn(Schedulers.boundedElastic());
+        MultipartBodyBuilder multipartBodyBuilder = new MultipartBodyBuilder();
+        multipartBodyBuilder.asyncPart("file", body, DataBuffer.class)
+                .filename(upload.filename())
+                .contentType(upload.contentType() != null
+                        ? MediaType.parseMediaType(upload.contentType())
+                        : MediaType.APPLICATION_OCTET_STREAM);
+
+        FileUploadResponse uploaded;
+        try {
+            uploaded = webClient.post()
+                    .uri(fileUploadUrl)
+                    .headers(relayToken())
+                    .httpRequest(this::uploadTimeout)
+                    .contentType(MediaType.MULTIPART_FORM_DATA)
+                    .body(BodyInserters.fromMultipartData(multipartBodyBuilder.build()))
+                    .retrieve()
+                    .bodyToMono(FileUploadResponse.class)
+                    .block();
+        } catch (WebClientException e) {
+            throw new FileStorageException(ErrorMessages.FILE_UPLOAD_FAILED, e);
+        }
+
+        if (uploaded == null) {
+            throw new FileStorageException(ErrorMessages.FILE_STORAGE_RESPONSE_INVALID);
+        }
+        return uploaded.toStoredFile(codec);
+    }
+
+    @Override
+    public void deleteFile(String key) {
+        try {
+            webClient.delete()
+                    .uri(fileUploadUrl + "/" + key)
+                    .headers(relayToken())
+                    .retrieve()
+                    // already gone counts as deleted, so retried deletes are idempotent
+                    .onStatus(status -> status.value() == HttpStatus.NOT_FOUND.value(), response -> Mono.empty())
+                    .toBodilessEntity()
+                    .block();
+        } catch (WebClientException e) {
+            throw new FileStorageException(ErrorMessages.FILE_DELETE_FAILED, e);
+        }
+    }
+
+    @Override
+    public void deleteFiles(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        if (!batchDeleteEnabled) {
+            keys.forEach(this::deleteFile);
+            return;
+        }
+
+        try {
+            webClient.post()
+                    .uri(fileUploadUrl + "/batch-delete")
+                    .headers(relayToken())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(keys)
+                    .retrieve()
+                    .toBodilessEntity()
+                    .block();
+        } catch (WebClientException e) {
+            throw new FileStorageException(ErrorMessages.FILE_DELETE_FAILED, e);
+        }
+    }
+
+    @Override
+    public String getFileContent(String fileKey, ContentCodec codec) {
+        return readFileText(fileKey, codec).block();
+    }
+
+    @Override
+    public String getFileContentRange(String fileKey, ContentCodec codec, long offset, int length) {
+        return readFileTextRange(fileKey, codec, offset, length).block();
+    }
+
+    @Override
+    public void copyFileContent(String fileKey, ContentCodec codec, long offset, long length, OutputStream out)
+            throws IOException {
+        try {
+            // the servlet stream blocks on a slow client, which must not stall the event loop the buffers arrive on
+            Flux<DataBuffer> buffers = readFileContent(fileKey, codec, offset, length)
+                    .publishOn(Schedulers.boundedElastic())
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+            DataBufferUtils.write(buffers, out)
+                    .doOnNext(DataBufferUtils::release)
+                    .then()
+                    .block();
+        } catch (RuntimeException e) {
+            // write failures arrive wrapped, storage failures are already FileStorageExceptions
+            if (Exceptions.unwrap(e) instanceof IOException writeFailure) {
+                throw writeFailure;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public Flux<DataBuffer> readFileContent(String fileKey, ContentCodec codec, long offset, long length) {
+        if (length <= 0) {
+            return Flux.empty();
+        }
+        boolean ranged = codec.supportsRanges() && (offset > 0 || length != Long.MAX_VALUE);
+
+        return webClient.get()
+                .uri(fileUploadUrl + "/" + fileKey)
+                .headers(relayToken())
+                .headers(headers -> {
+                    // offsets of an encoded object only exist in the decoded text, so it is read from the start
+                    if (ranged) {
+                        String last = length == Long.MAX_VALUE ? "" : String.valueOf(offset + length - 1);
+                        headers.set(HttpHeaders.RANGE, "bytes=" + offset + "-" + last);
+                    }
+                })
+                .exchangeToFlux(response -> {
+                    if (!response.statusCode().is2xxSuccessful()) {
+                        return response.releaseBody()
+                                .thenMany(Flux.error(new FileStorageException(
+                                        ErrorMessages.FILE_STORAGE_RESPONSE_INVALID, response.statusCode())));
+                    }
+                    Flux<DataBuffer> text = decode(response.bodyToFlux(DataBuffer.class), codec);
+                    // a server ignoring the Range header answers 200 with the whole object, skip to the slice ourselves
+                    if (response.statusCode().value() != HttpStatus.PARTIAL_CONTENT.value()) {
+                        text = DataBufferUtils.skipUntilByteCount(text, offset);
+                    }
+                    return DataBufferUtils.takeUntilByteCount(text, length);
+                })
+                .onErrorMap(WebClientException.class,
+                        e -> new FileStorageException(ErrorMessages.FILE_CONTENT_FETCH_FAILED, e));
+    }
+
+    // read on the calling thread: by the time the request is sent the security context may be gone
+    private static Consumer<HttpHeaders> relayToken() {
+        String token = TokenRelayInterceptor.currentToken();
+        return headers -> {
+            if (token != null) {
+                headers.setBearerAuth(token);
+            }
+        };
+    }
+
+    private void uploadTimeout(ClientHttpRequest request) {
+        if (request.getNativeRequest() instanceof HttpClientRequest nettyRequest) {
+            nettyRequest.responseTimeout(uploadResponseTimeout);
+        }
+    }
+
+    private static Flux<DataBuffer> decode(Flux<DataBuffer> stored, ContentCodec codec) {
+        if (codec == ContentCodec.IDENTITY) {
+            return stored;
+        }
+        // one inflater per download, fed buffer by buffer, so the object is never held as a whole
+        return Flux.using(Inflater::new, inflater -> stored.concatMapIterable(buffer -> inflate(inflater, buffer)), Inflater::end);
+    }
+
+    private static List<DataBuffer> inflate(Inflater inflater, DataBuffer buffer) {
+        try {
+            byte[] input = new byte[buffer.readableByteCount()];
+            buffer.read(input);
+            inflater.setInput(input);
+
+            List<DataBuffer> inflated = new ArrayList<>();
+            byte[] chunk = new byte[BUFFER_SIZE];
+            int length;
+            while ((length = inflater.inflate(chunk)) > 0) {
+                inflated.add(DefaultDataBufferFactory.sharedInstance.wrap(Arrays.copyOf(chunk, length)));
+            }
+            if (inflater.needsDictionary()) {
+                throw new FileStorageException(ErrorMessages.FILE_STORAGE_RESPONSE_INVALID);
+            }
+            return inflated;
+        } catch (DataFormatException e) {
+            throw new FileStorageException(ErrorMessages.FILE_STORAGE_RESPONSE_INVALID, e);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+}
@@ -1,15 +1,30 @@
 package pl.kamil.content_service.infrastructure.exception;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
 public class FileStorageException extends RuntimeException{
+
+    // what the file service answered, null when it did not answer with an error status
+    private final HttpStatusCode upstreamStatus;
+
     public FileStorageException(String message) {
-        super(message);
+        this(message, (HttpStatusCode) null);
     }
 
     public FileStorageException(String message, Throwable cause) {
         super(message, cause);
+        this.upstreamStatus = null;
+    }
+
+    public FileStorageException(String message, HttpStatusCode upstreamStatus) {
+        super(message);
+        this.upstreamStatus = upstreamStatus;
+    }
+
+    public HttpStatusCode getUpstreamStatus() {
+        return upstreamStatus;
     }
 }
@@ -4,6 +4,16 @@ public class ErrorMessages {
     // Lesson Errors
     public static final String LESSON_NOT_FOUND = "Lesson not found";
     public static final String LESSON_CONTENT_NOT_FOUND = "Lesson content not found";
+    public static final String INVALID_CURSOR = "Invalid pagination cursor";
+    public static final String INVALID_PAGINATION_UNIT = "Pagination unit must be one of words, sentences or chars";
+    public static final String INVALID_BULK_DELETE = "Provide either lesson ids or olderThan";
+    public static final String INVALID_IMPORT = "Provide either an archive or files";
+    public static final String IMPORT_ARCHIVE_INVALID = "Failed to read the uploaded archive";
+    public static final String IMPORT_TOO_MANY_FILES = "Import exceeds the maximum number of files";
+    public static final String IMPORT_TOO_LARGE = "Import exceeds the maximum total size";
+    public static final String IMPORT_FILE_EMPTY = "File is empty";
+    public static final String IMPORT_FILE_TOO_LARGE = "File size exceeds the maximum allowed size";
+    public static final String IMPORT_FILE_TYPE_INVALID = "Only text/plain files can be imported";
     //
     public static final String ACCESS_DENIED = "You do not have permission to access this lesson";
     public static final String FILE_UPLOAD_FAILED = "Failed to upload file to storage service";
@@ -11,5 +21,6 @@ public class ErrorMessages {
     public static final String FILE_STORAGE_RESPONSE_INVALID = "Invalid response from file storage service";
     public static final String FILE_DELETE_FAILED = "Cannot delete file with key: %s";
     public static final String FILE_CONTENT_FETCH_FAILED = "Failed to fetch file content with key: %s";
+    public static final String FILE_STORAGE_UNAVAILABLE = "File storage service is unavailable";
 
 }
@@ -0,0 +1,44 @@
+package pl.kamil.content_service.shared.security;
+
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.UUID;
+
+/**
+ * {@link Jwt} carrying the caller's id, parsed from the {@code user_id} claim once per token. The caching
+ * decoder keeps it with the verified token, so requests reusing a token skip the parsing.
+ */
+public class UserJwt extends Jwt {
+
+    static final String USER_ID_CLAIM = "user_id";
+
+    private final UUID userId;
+
+    private UserJwt(Jwt jwt, UUID userId) {
+        super(jwt.getTokenValue(), jwt.getIssuedAt(), jwt.getExpiresAt(), jwt.getHeaders(), jwt.getClaims());
+        this.userId = userId;
+    }
+
+    /**
+     * @throws BadJwtException when the token has no well-formed {@code user_id} claim
+     */
+    public static UserJwt from(Jwt jwt) {
+        if (jwt instanceof UserJwt userJwt) {
+            return userJwt;
+        }
+        String userId = jwt.getClaimAsString(USER_ID_CLAIM);
+        if (userId == null) {
+            throw new BadJwtException("Token has no user_id claim");
+        }
+        try {
+            return new UserJwt(jwt, UUID.fromString(userId));
+        } catch (IllegalArgumentException e) {
+            throw new BadJwtException("Token has a malformed user_id claim", e);
+        }
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+}
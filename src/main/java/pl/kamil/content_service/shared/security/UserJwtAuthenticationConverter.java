@@ -0,0 +1,34 @@
+package pl.kamil.content_service.shared.security;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+
+import java.util.UUID;
+
+/**
+ * Authenticates a validated JWT as a {@link UserJwtAuthenticationToken}. A token without a well-formed
+ * {@code user_id} claim is rejected here, with a 401, instead of failing later in a controller.
+ */
+public class UserJwtAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+
+    private final JwtGrantedAuthoritiesConverter authoritiesConverter = new JwtGrantedAuthoritiesConverter();
+
+    @Override
+    public AbstractAuthenticationToken convert(Jwt jwt) {
+        // the token itself is built per request: the provider sets the request's details on it
+        return new UserJwtAuthenticationToken(jwt, authoritiesConverter.convert(jwt), userId(jwt));
+    }
+
+    // already parsed when the token came from the caching decoder
+    private static UUID userId(Jwt jwt) {
+        try {
+            return UserJwt.from(jwt).getUserId();
+        } catch (BadJwtException e) {
+            throw new InvalidBearerTokenException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package pl.kamil.content_service.shared.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * {@link JwtAuthenticationToken} carrying the caller's id, read from the {@code user_id} claim once
+ * when the request is authenticated.
+ */
+public class UserJwtAuthenticationToken extends JwtAuthenticationToken {
+
+    private final UUID userId;
+
+    public UserJwtAuthenticationToken(Jwt jwt, Collection<? extends GrantedAuthority> authorities, UUID userId) {
+        super(jwt, authorities);
+        this.userId = userId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+}
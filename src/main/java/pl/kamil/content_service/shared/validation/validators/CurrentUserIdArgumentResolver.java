@@ -7,6 +7,7 @@ import org.springframework.web.bind.support.WebDataBinderFactory;
 import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.method.support.ModelAndViewContainer;
+import pl.kamil.content_service.shared.security.UserJwtAuthenticationToken;
 import pl.kamil.content_service.shared.validation.annotations.CurrentUserId;
 
 import java.util.UUID;
@@ -24,6 +25,11 @@ public class CurrentUserIdArgumentResolver implements HandlerMethodArgumentResol
                                   WebDataBinderFactory binderFactory) throws Exception {
 
         var auth = SecurityContextHolder.getContext().getAuthentication();
+        // parsed once while authenticating the request
+        if (auth instanceof UserJwtAuthenticationToken userToken) {
+            UUID userId = userToken.getUserId();
+            return parameter.getParameterType().equals(UUID.class) ? userId : userId.toString();
+        }
         if (auth instanceof JwtAuthenticationToken jwtToken) {
             String userId = jwtToken.getToken().getClaimAsString("user_id");
 
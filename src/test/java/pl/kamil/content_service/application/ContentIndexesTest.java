@@ -0,0 +1,99 @@
+package pl.kamil.content_service.application;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import pl.kamil.content_service.domain.BoundaryIndex;
+import pl.kamil.content_service.domain.Content;
+import pl.kamil.content_service.domain.ContentBoundaries;
+import pl.kamil.content_service.domain.ContentPageIndex;
+import pl.kamil.content_service.domain.PageIndex;
+import pl.kamil.content_service.infrastructure.ContentBoundariesRepository;
+import pl.kamil.content_service.infrastructure.ContentPageIndexRepository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ContentIndexesTest {
+
+    @Mock
+    private ContentPageIndexRepository pageIndexRepository;
+
+    @Mock
+    private ContentBoundariesRepository boundariesRepository;
+
+    private ContentIndexes contentIndexes;
+
+    @BeforeEach
+    void setUp() {
+        contentIndexes = new ContentIndexes(
+                pageIndexRepository, boundariesRepository, 1_048_576, 1_048_576, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void shouldReadPageIndexOncePerContent() {
+        // Given
+        Content content = storedContent();
+        PageIndex pageIndex = PageIndex.build("one two three four five six", 8);
+        when(pageIndexRepository.findById(content.getId()))
+                .thenReturn(Optional.of(new ContentPageIndex(content, pageIndex)));
+
+        // When
+        PageIndex first = contentIndexes.pageIndex(content);
+        PageIndex second = contentIndexes.pageIndex(content);
+
+        // Then
+        assertSame(pageIndex, first);
+        assertSame(pageIndex, second);
+        verify(pageIndexRepository, times(1)).findById(content.getId());
+    }
+
+    @Test
+    void shouldReadBoundaryIndexOncePerContent() {
+        // Given
+        Content content = storedContent();
+        BoundaryIndex boundaryIndex = BoundaryIndex.build("One sentence. And another one.");
+        when(boundariesRepository.findById(content.getId()))
+                .thenReturn(Optional.of(new ContentBoundaries(content, boundaryIndex)));
+
+        // When
+        BoundaryIndex first = contentIndexes.boundaryIndex(content);
+        BoundaryIndex second = contentIndexes.boundaryIndex(content);
+
+        // Then
+        assertSame(boundaryIndex, first);
+        assertSame(boundaryIndex, second);
+        verify(boundariesRepository, times(1)).findById(content.getId());
+        verifyNoInteractions(pageIndexRepository);
+    }
+
+    @Test
+    void shouldLookAgain_WhenContentHasNoPageIndex() {
+        // Given
+        Content content = storedContent();
+        when(pageIndexRepository.findById(content.getId())).thenReturn(Optional.empty());
+
+        // When
+        PageIndex first = contentIndexes.pageIndex(content);
+        PageIndex second = contentIndexes.pageIndex(content);
+
+        // Then
+        assertNull(first);
+        assertNull(second);
+        verify(pageIndexRepository, times(2)).findById(content.getId());
+    }
+
+    private static Content storedContent() {
+        Content content = Content.create("lesson.txt", 6);
+        ReflectionTestUtils.setField(content, "id", UUID.randomUUID());
+        return content;
+    }
+}
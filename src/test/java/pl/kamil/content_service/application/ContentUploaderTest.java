@@ -0,0 +1,155 @@
+package pl.kamil.content_service.application;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.kamil.content_service.application.port.out.FileStorage;
+import pl.kamil.content_service.application.port.out.FileUpload;
+import pl.kamil.content_service.application.port.out.StoredFile;
+import pl.kamil.content_service.domain.Content;
+import pl.kamil.content_service.domain.ContentChunk;
+import pl.kamil.content_service.domain.PageIndex;
+import pl.kamil.content_service.infrastructure.exception.FileStorageException;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ContentUploaderTest {
+
+    @Mock
+    private FileStorage fileStorage;
+
+    private final List<byte[]> stored = new ArrayList<>();
+
+    @Test
+    void shouldCarryBytesPastTheLastPageEndIntoTheNextChunk_WhenOneReadFillsSeveralChunks() throws IOException {
+        // Given
+        String text = "Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(40);
+        storeInMemory();
+
+        // When
+        ContentUploader.Uploaded uploaded = uploader(100).upload("lesson.txt", "text/plain", -1, utf8(text));
+
+        // Then
+        assertTrue(uploaded.content().getChunks().size() > 2);
+        assertChunksHoldWholePages(uploaded, text);
+    }
+
+    @Test
+    void shouldCarryBytesPastTheLastPageEndIntoTheNextChunk_WhenReadsArriveInSlivers() throws IOException {
+        // Given
+        String text = "zażółć gęślą jaźń, consectetur adipiscing elit. ".repeat(20);
+        storeInMemory();
+
+        // When
+        ContentUploader.Uploaded uploaded = uploader(64).upload("lesson.txt", "text/plain", -1, trickling(utf8(text), 3));
+
+        // Then
+        assertTrue(uploaded.content().getChunks().size() > 2);
+        assertChunksHoldWholePages(uploaded, text);
+    }
+
+    @Test
+    void shouldNeverSplitASurrogatePair_WhenPageEndFallsInsideIt() throws IOException {
+        // Given
+        // no spaces, so pages are cut at their nominal end, some of them between the halves of an emoji
+        String text = ("a" + "😀".repeat(20)).repeat(10);
+        storeInMemory();
+
+        // When
+        ContentUploader.Uploaded uploaded = uploader(16).upload("lesson.txt", "text/plain", -1, utf8(text));
+
+        // Then
+        PageIndex index = uploaded.pageIndex().getPageIndex();
+        assertTrue(IntStream.range(0, index.pageCount() - 1)
+                .anyMatch(page -> Character.isHighSurrogate(text.charAt(index.end(page) - 1))));
+        assertTrue(uploaded.content().getChunks().size() > 1);
+        for (byte[] chunk : stored) {
+            assertArrayEquals(chunk, new String(chunk, StandardCharsets.UTF_8).getBytes(StandardCharsets.UTF_8));
+        }
+        assertChunksHoldWholePages(uploaded, text);
+    }
+
+    @Test
+    void shouldStoreOneEmptyChunk_WhenTextIsEmpty() throws IOException {
+        // Given
+        storeInMemory();
+
+        // When
+        Content content = uploader(64).upload("lesson.txt", "text/plain", 0, utf8("")).content();
+
+        // Then
+        assertEquals(1, content.getChunks().size());
+        assertEquals(0, content.getChunks().get(0).getFirstPage());
+        assertEquals(0, stored.get(0).length);
+    }
+
+    @Test
+    void shouldDeleteStoredChunks_WhenALaterChunkFailsToUpload() {
+        // Given
+        String text = "Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(40);
+        when(fileStorage.storeFile(any(FileUpload.class)))
+                .thenReturn(new StoredFile("chunk-0"))
+                .thenReturn(new StoredFile("chunk-1"))
+                .thenThrow(new FileStorageException("down"));
+
+        // When
+        assertThrows(FileStorageException.class,
+                () -> uploader(100).upload("lesson.txt", "text/plain", -1, utf8(text)));
+
+        // Then
+        verify(fileStorage).deleteFiles(List.of("chunk-0", "chunk-1"));
+    }
+
+    private void assertChunksHoldWholePages(ContentUploader.Uploaded uploaded, String text) {
+        PageIndex index = uploaded.pageIndex().getPageIndex();
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        List<ContentChunk> chunks = uploaded.content().getChunks();
+        for (int i = 0; i < chunks.size(); i++) {
+            int from = index.byteStart(chunks.get(i).getFirstPage());
+            int to = i + 1 < chunks.size() ? index.byteStart(chunks.get(i + 1).getFirstPage()) : bytes.length;
+            assertEquals("chunk-" + i, chunks.get(i).getS3Key());
+            assertArrayEquals(Arrays.copyOfRange(bytes, from, to), stored.get(i));
+        }
+    }
+
+    private void storeInMemory() {
+        when(fileStorage.storeFile(any(FileUpload.class))).thenAnswer(invocation -> {
+            FileUpload upload = invocation.getArgument(0);
+            stored.add(upload.content().readAllBytes());
+            return new StoredFile("chunk-" + (stored.size() - 1));
+        });
+    }
+
+    private ContentUploader uploader(int chunkBytes) {
+        return new ContentUploader(fileStorage, chunkBytes, new LessonMetrics(new SimpleMeterRegistry()), LessonMetrics.CREATE);
+    }
+
+    private static InputStream utf8(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // hands out at most a few bytes per read, as a slow upload would
+    private static InputStream trickling(InputStream in, int maxRead) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                return in.read(buffer, offset, Math.min(length, maxRead));
+            }
+        };
+    }
+}
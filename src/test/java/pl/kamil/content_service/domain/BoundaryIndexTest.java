@@ -0,0 +1,83 @@
+package pl.kamil.content_service.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundaryIndexTest {
+
+    @Test
+    void shouldPageByWordsWithoutCountingWhitespace() {
+        // Given
+        String text = "  one two\nthree\t four   five six seven ";
+
+        // When
+        BoundaryIndex index = BoundaryIndex.build(text);
+
+        // Then
+        assertEquals(7, index.count(PaginationUnit.WORDS));
+        assertEquals(3, index.pageCount(PaginationUnit.WORDS, 3));
+        assertEquals("four   five six", text.substring(
+                index.start(PaginationUnit.WORDS, 3, 1), index.end(PaginationUnit.WORDS, 3, 1)).trim());
+        assertEquals("seven ", text.substring(
+                index.start(PaginationUnit.WORDS, 3, 2), index.end(PaginationUnit.WORDS, 3, 2)));
+        assertFalse(index.contains(PaginationUnit.WORDS, 3, 3));
+    }
+
+    @Test
+    void shouldEndSentencesAtMarksClosingQuotesAndBlankLines() {
+        // Given
+        String text = "Pi is 3.14 or so. \"Really?\" Yes… Heading\n\nBody text\nstill body.";
+
+        // When
+        BoundaryIndex index = BoundaryIndex.build(text);
+
+        // Then
+        String[] expected = {"Pi is 3.14 or so.", "\"Really?\"", "Yes…", "Heading", "Body text\nstill body."};
+        assertEquals(expected.length, index.count(PaginationUnit.SENTENCES));
+        for (int page = 0; page < expected.length; page++) {
+            assertEquals(expected[page], text.substring(
+                    index.start(PaginationUnit.SENTENCES, 1, page), index.end(PaginationUnit.SENTENCES, 1, page)).trim());
+        }
+    }
+
+    @Test
+    void shouldBuildSameIndexFromStreamedBytes() {
+        Random random = new Random(11);
+        String[] tokens = {"lorem", " ", "ipsum.", "zażółć", "\u6771\u4eac", "\ud83d\ude00", "dolor!", "\n", "\n\n"};
+
+        for (int round = 0; round < 200; round++) {
+            // Given
+            StringBuilder text = new StringBuilder();
+            int tokenCount = random.nextInt(60);
+            for (int i = 0; i < tokenCount; i++) {
+                text.append(tokens[random.nextInt(tokens.length)]);
+            }
+            byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+            int pageSize = 1 + random.nextInt(5);
+
+            // When
+            BoundaryIndexBuilder builder = new BoundaryIndexBuilder();
+            for (int offset = 0; offset < bytes.length; ) {
+                int length = Math.min(1 + random.nextInt(7), bytes.length - offset);
+                builder.update(bytes, offset, length);
+                offset += length;
+            }
+            BoundaryIndex streamed = builder.build();
+            BoundaryIndex expected = BoundaryIndex.build(text.toString());
+
+            // Then
+            for (PaginationUnit unit : new PaginationUnit[]{PaginationUnit.WORDS, PaginationUnit.SENTENCES}) {
+                assertEquals(expected.count(unit), streamed.count(unit));
+                for (int page = 0; page < expected.pageCount(unit, pageSize); page++) {
+                    String fromBytes = new String(bytes, streamed.byteStart(unit, pageSize, page),
+                            streamed.byteLength(unit, pageSize, page), StandardCharsets.UTF_8);
+                    assertEquals(text.substring(expected.start(unit, pageSize, page), expected.end(unit, pageSize, page)), fromBytes);
+                }
+            }
+        }
+    }
+}
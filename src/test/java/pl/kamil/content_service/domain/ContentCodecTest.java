@@ -0,0 +1,44 @@
+package pl.kamil.content_service.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContentCodecTest {
+
+    @Test
+    void shouldRoundTripAndShrinkText_WhenDeflated() throws IOException {
+        // Given
+        byte[] text = "Lorem ipsum dolor sit amet, zażółć gęślą jaźń. ".repeat(200).getBytes(StandardCharsets.UTF_8);
+
+        // When
+        byte[] stored = ContentCodec.DEFLATE.encode(new ByteArrayInputStream(text)).readAllBytes();
+        byte[] decoded = ContentCodec.DEFLATE.decode(new ByteArrayInputStream(stored)).readAllBytes();
+
+        // Then
+        assertArrayEquals(text, decoded);
+        assertTrue(stored.length * 3 < text.length);
+    }
+
+    @Test
+    void shouldSkipWithinDecodedText() throws IOException {
+        // Given
+        byte[] text = "0123456789abcdefghij".getBytes(StandardCharsets.UTF_8);
+        byte[] stored;
+        try (InputStream encoded = ContentCodec.DEFLATE.encode(new ByteArrayInputStream(text))) {
+            stored = encoded.readAllBytes();
+        }
+
+        // When
+        InputStream decoded = ContentCodec.DEFLATE.decode(new ByteArrayInputStream(stored));
+        decoded.skipNBytes(10);
+
+        // Then
+        assertEquals("abcde", new String(decoded.readNBytes(5), StandardCharsets.UTF_8));
+    }
+}
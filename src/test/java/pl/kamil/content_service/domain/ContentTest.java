@@ -0,0 +1,64 @@
+package pl.kamil.content_service.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContentTest {
+
+    private static final String TEXT = "one two three four five six seven eight nine ten eleven twelve";
+
+    @Test
+    void shouldFindChunkOfPage_AtFirstLastAndExactChunkStarts() {
+        // Given
+        PageIndex index = PageIndex.build(TEXT, 4);
+        int lastPage = index.pageCount() - 1;
+        Content content = chunked(0, 3, 7);
+
+        // When / Then
+        assertEquals(0, content.chunkOf(0).getFirstPage());
+        assertEquals(0, content.chunkOf(2).getFirstPage());
+        assertEquals(3, content.chunkOf(3).getFirstPage());
+        assertEquals(3, content.chunkOf(6).getFirstPage());
+        assertEquals(7, content.chunkOf(7).getFirstPage());
+        assertEquals(7, content.chunkOf(lastPage).getFirstPage());
+    }
+
+    @Test
+    void shouldFindOnlyChunk_WhenTextIsOneChunk() {
+        // Given
+        PageIndex index = PageIndex.build(TEXT, 4);
+        Content content = chunked(0);
+
+        // When / Then
+        assertEquals("part0", content.chunkOf(0).getS3Key());
+        assertEquals("part0", content.chunkOf(index.pageCount() - 1).getS3Key());
+    }
+
+    @Test
+    void shouldFindChunkOfEveryPage_WhenEachPageIsItsOwnChunk() {
+        // Given
+        PageIndex index = PageIndex.build(TEXT, 4);
+        int[] firstPages = new int[index.pageCount()];
+        for (int page = 0; page < firstPages.length; page++) {
+            firstPages[page] = page;
+        }
+        Content content = chunked(firstPages);
+
+        // When / Then
+        for (int page = 0; page < firstPages.length; page++) {
+            assertEquals(page, content.chunkOf(page).getFirstPage());
+        }
+    }
+
+    private static Content chunked(int... firstPages) {
+        List<ContentChunk> chunks = new ArrayList<>();
+        for (int i = 0; i < firstPages.length; i++) {
+            chunks.add(new ContentChunk("part" + i, firstPages[i]));
+        }
+        return Content.createChunked(chunks, 12, TEXT.length(), null, ContentCodec.IDENTITY);
+    }
+}
@@ -77,6 +77,19 @@ public class LessonFactory {
                         ).toList();
     }
 
+    // SUMMARY HELPER
+    public static LessonSummary createLessonSummary() {
+        Instant now = Instant.now();
+        return new LessonSummary(TEST_LESSON_ID, DEFAULT_ORIGINAL_FILENAME, TEST_USER_ID, now, now);
+    }
+
+    public static List<LessonSummary> createLessonSummaryList(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new LessonSummary(UUID.randomUUID(), DEFAULT_ORIGINAL_FILENAME, TEST_USER_ID,
+                        Instant.now(), Instant.now()))
+                .toList();
+    }
+
     public static Lesson createLessonWithContent() {
         Lesson lesson = createLesson();
         Content content = createContent();
@@ -0,0 +1,203 @@
+package pl.kamil.content_service.domain;
+
+import org.junit.jupiter.api.Test;
+import pl.kamil.content_service.api.response.PagedResponse;
+import pl.kamil.content_service.application.TextPaginator;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PageIndexTest {
+
+    @Test
+    void shouldCutPagesOnSpaces() {
+        // Given
+        String text = "alpha beta gamma delta epsilon";
+
+        // When
+        PageIndex index = PageIndex.build(text, 8);
+
+        // Then
+        assertEquals(3, index.pageCount());
+        assertEquals("alpha beta", text.substring(index.start(0), index.end(0)));
+        assertEquals(text.length(), index.end(index.pageCount() - 1));
+    }
+
+    @Test
+    void shouldCoverTextWithoutGapsOrOverlaps() {
+        String text = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor.";
+        PageIndex index = PageIndex.build(text, 10);
+
+        StringBuilder rebuilt = new StringBuilder();
+        for (int page = 0; page < index.pageCount(); page++) {
+            assertEquals(rebuilt.length(), index.start(page));
+            rebuilt.append(text, index.start(page), index.end(page));
+        }
+
+        assertEquals(text, rebuilt.toString());
+    }
+
+    @Test
+    void shouldLocatePagesInUtf8Bytes() {
+        // Given
+        String text = "zażółć gęślą jaźń i tak dalej";
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+        // When
+        PageIndex index = PageIndex.build(text, 5);
+
+        // Then
+        for (int page = 0; page < index.pageCount(); page++) {
+            String fromBytes = new String(bytes, index.byteStart(page), index.byteLength(page), StandardCharsets.UTF_8);
+            assertEquals(text.substring(index.start(page), index.end(page)), fromBytes);
+        }
+    }
+
+    @Test
+    void shouldReturnEmptyIndex_WhenTextIsEmpty() {
+        PageIndex index = PageIndex.build("", 30);
+
+        assertEquals(0, index.pageCount());
+        assertEquals(0, index.textLength());
+    }
+
+    @Test
+    void shouldPaginateUsingIndex() {
+        // Given
+        String text = "one two three four five six seven eight nine ten";
+        PageIndex index = PageIndex.build(text, 12);
+
+        // When
+        PagedResponse<String> firstPage = TextPaginator.paginate(text, index, 0);
+        PagedResponse<String> outOfRange = TextPaginator.paginate(text, index, index.pageCount());
+
+        // Then
+        assertEquals("one two three", firstPage.content().get(0));
+        assertEquals(index.pageCount(), firstPage.totalPages());
+        assertFalse(firstPage.last());
+        assertEquals("", outOfRange.content().get(0));
+        assertTrue(outOfRange.last());
+    }
+
+    @Test
+    void shouldCutSamePagesOnTheFly_AsFromTheIndex() {
+        // Given
+        // a long run without spaces makes one page end at its nominal end
+        String text = "Lorem ipsum dolor sit amet, consectetursedadipiscingelitdoeiusmod tempor incididunt ut labore.";
+        PageIndex index = PageIndex.build(text, 12);
+
+        for (int page = 0; page <= index.pageCount(); page++) {
+            // When
+            PagedResponse<String> onTheFly = TextPaginator.paginate(text, page, 12);
+            PagedResponse<String> indexed = TextPaginator.paginate(text, index, page);
+
+            // Then
+            assertEquals(indexed.content(), onTheFly.content());
+            assertEquals(indexed.totalPages(), onTheFly.totalPages());
+            assertEquals(indexed.totalElements(), onTheFly.totalElements());
+            assertEquals(indexed.last(), onTheFly.last());
+        }
+    }
+
+    @Test
+    void shouldBuildSameIndexFromStreamedBytes() {
+        Random random = new Random(7);
+        String[] tokens = {"lorem", " ", "ipsum", "zażółć", "\u6771\u4eac", "\ud83d\ude00", "dolorsitametconsectetur", "\n"};
+
+        for (int round = 0; round < 200; round++) {
+            // Given
+            StringBuilder text = new StringBuilder();
+            int tokenCount = random.nextInt(60);
+            for (int i = 0; i < tokenCount; i++) {
+                text.append(tokens[random.nextInt(tokens.length)]);
+            }
+            int pageSize = 1 + random.nextInt(40);
+            byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+
+            // When
+            PageIndexBuilder builder = new PageIndexBuilder(pageSize);
+            for (int offset = 0; offset < bytes.length; ) {
+                int length = Math.min(1 + random.nextInt(7), bytes.length - offset);
+                builder.update(bytes, offset, length);
+                offset += length;
+            }
+            PageIndex streamed = builder.build();
+            PageIndex expected = PageIndex.build(text.toString(), pageSize);
+
+            // Then
+            assertEquals(expected.pageCount(), streamed.pageCount());
+            for (int page = 0; page < expected.pageCount(); page++) {
+                assertEquals(expected.end(page), streamed.end(page));
+                assertEquals(expected.byteStart(page), streamed.byteStart(page));
+                assertEquals(expected.byteLength(page), streamed.byteLength(page));
+            }
+        }
+    }
+
+    @Test
+    void shouldTellSinkOfEveryPageEnd_OnlyOnceItsBytesWereWritten() {
+        // Given
+        String text = "Lorem ipsum dolor sit amet, zażółć gęślą jaźń, consectetur adipiscing elit.";
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        RecordingSink sink = new RecordingSink();
+
+        // When
+        PageIndexBuilder builder = new PageIndexBuilder(8, sink);
+        for (int offset = 0; offset < bytes.length; offset += 5) {
+            int length = Math.min(5, bytes.length - offset);
+            sink.write(bytes, offset, length);
+            builder.update(bytes, offset, length);
+        }
+        PageIndex index = builder.build();
+
+        // Then
+        assertEquals(index.pageCount(), sink.ends.size());
+        for (int[] end : sink.ends) {
+            int lastPage = end[0] - 1;
+            assertEquals(index.byteStart(lastPage) + index.byteLength(lastPage), end[1]);
+            assertTrue(end[1] <= end[2]);
+        }
+    }
+
+    @Test
+    void shouldNotTellSinkOfPageEnd_WhenItFallsInsideSurrogatePair() {
+        // Given
+        // no spaces, so every page is cut at its nominal end, the first one between the halves of the emoji
+        String text = "\ud83d\ude00abcdefghij";
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        RecordingSink sink = new RecordingSink();
+
+        // When
+        PageIndexBuilder builder = new PageIndexBuilder(1, sink);
+        sink.write(bytes, 0, bytes.length);
+        builder.update(bytes, 0, bytes.length);
+        PageIndex index = builder.build();
+
+        // Then
+        assertEquals(1, index.end(0));
+        assertEquals(index.pageCount() - 1, sink.ends.size());
+        assertTrue(sink.ends.stream().noneMatch(end -> end[0] == 1));
+        assertEquals(4, sink.ends.get(0)[1]);
+    }
+
+    // records {pageCount, endByte, bytes written so far} for every page end it hears of
+    private static final class RecordingSink implements PageSink {
+
+        private final List<int[]> ends = new ArrayList<>();
+        private int written;
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            written += length;
+        }
+
+        @Override
+        public void pageEnded(int pageCount, int endByte) {
+            ends.add(new int[]{pageCount, endByte, written});
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package pl.kamil.content_service.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WordCounterTest {
+
+    @Test
+    void shouldReturnZero_WhenTextIsEmptyOrBlank() throws IOException {
+        assertEquals(0, count(""));
+        assertEquals(0, count(" \t\r\n "));
+    }
+
+    @Test
+    void shouldCountWordsSeparatedByAnyWhitespace() throws IOException {
+        assertEquals(4, count("  Hello,\tworld!\r\nzażółć  gęślą "));
+    }
+
+    @Test
+    void shouldTreatMultiByteSpacesAsSeparators() throws IOException {
+        // ideographic space U+3000 and em space U+2003
+        assertEquals(3, count("東京\u3000大阪\u2003京都"));
+        // no-break space keeps words together, as in Character.isWhitespace
+        assertEquals(1, count("100\u00A0km"));
+    }
+
+    @Test
+    void shouldCount_WhenBufferSplitsCharacter() {
+        byte[] text = "a\u3000b".getBytes(StandardCharsets.UTF_8);
+        WordCounter counter = new WordCounter();
+
+        for (int i = 0; i < text.length; i++) {
+            counter.update(text, i, 1);
+        }
+
+        assertEquals(2, counter.count());
+    }
+
+    @Test
+    void shouldMatchSplitCount_WhenStreamedAcrossBuffers() throws IOException {
+        // Given
+        Random random = new Random(42);
+        String[] tokens = {"lorem", "ipsum", " ", "  ", "\n", "żółw", "\u3000", "słowo"};
+        StringBuilder builder = new StringBuilder();
+        while (builder.length() < 64 * WordCounter.BUFFER_SIZE) {
+            builder.append(tokens[random.nextInt(tokens.length)]);
+        }
+        byte[] text = builder.toString().getBytes(StandardCharsets.UTF_8);
+
+        // When
+        long words = WordCounter.count(new ByteArrayInputStream(text));
+
+        // Then
+        assertEquals(builder.toString().trim().split("[\\s\u3000]+").length, words);
+    }
+
+    private static long count(String text) throws IOException {
+        return WordCounter.count(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,99 @@
+package pl.kamil.content_service.infrastructure;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.kamil.content_service.application.port.out.FileStorage;
+import pl.kamil.content_service.domain.ContentCodec;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CachingFileStorageTest {
+
+    @Mock
+    private FileStorage delegate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CachingFileStorage cachingFileStorage;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // room for two 10-char texts
+        cachingFileStorage = new CachingFileStorage(delegate, 40, meterRegistry);
+    }
+
+    @Test
+    void shouldFetchOnce_WhenContentReadRepeatedly() {
+        when(delegate.getFileContent("a", ContentCodec.IDENTITY)).thenReturn("0123456789");
+
+        assertEquals("0123456789", cachingFileStorage.getFileContent("a", ContentCodec.IDENTITY));
+        assertEquals("0123456789", cachingFileStorage.getFileContent("a", ContentCodec.IDENTITY));
+
+        verify(delegate, times(1)).getFileContent("a", ContentCodec.IDENTITY);
+        assertEquals(1, meterRegistry.counter("file.storage.cache.requests", "result", "hit").count());
+        assertEquals(1, meterRegistry.counter("file.storage.cache.requests", "result", "miss").count());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsed_WhenCapacityExceeded() {
+        when(delegate.getFileContent("a", ContentCodec.IDENTITY)).thenReturn("aaaaaaaaaa");
+        when(delegate.getFileContent("b", ContentCodec.IDENTITY)).thenReturn("bbbbbbbbbb");
+        when(delegate.getFileContent("c", ContentCodec.IDENTITY)).thenReturn("cccccccccc");
+
+        cachingFileStorage.getFileContent("a", ContentCodec.IDENTITY);
+        cachingFileStorage.getFileContent("b", ContentCodec.IDENTITY);
+        cachingFileStorage.getFileContent("a", ContentCodec.IDENTITY);
+        cachingFileStorage.getFileContent("c", ContentCodec.IDENTITY);
+        cachingFileStorage.getFileContent("a", ContentCodec.IDENTITY);
+        cachingFileStorage.getFileContent("b", ContentCodec.IDENTITY);
+
+        verify(delegate, times(1)).getFileContent("a", ContentCodec.IDENTITY);
+        verify(delegate, times(2)).getFileContent("b", ContentCodec.IDENTITY);
+        assertEquals(2, meterRegistry.counter("file.storage.cache.evictions").count());
+    }
+
+    @Test
+    void shouldInvalidateEntry_WhenFileDeleted() {
+        when(delegate.getFileContent("a", ContentCodec.IDENTITY)).thenReturn("0123456789");
+
+        cachingFileStorage.getFileContent("a", ContentCodec.IDENTITY);
+        cachingFileStorage.deleteFile("a");
+        cachingFileStorage.getFileContent("a", ContentCodec.IDENTITY);
+
+        verify(delegate).deleteFile("a");
+        verify(delegate, times(2)).getFileContent("a", ContentCodec.IDENTITY);
+    }
+
+    @Test
+    void shouldCacheRangesAndDropThem_WhenFileDeleted() {
+        when(delegate.getFileContentRange("a", ContentCodec.IDENTITY, 10, 5)).thenReturn("01234");
+
+        cachingFileStorage.getFileContentRange("a", ContentCodec.IDENTITY, 10, 5);
+        cachingFileStorage.getFileContentRange("a", ContentCodec.IDENTITY, 10, 5);
+        cachingFileStorage.deleteFile("a");
+        cachingFileStorage.getFileContentRange("a", ContentCodec.IDENTITY, 10, 5);
+
+        verify(delegate, times(2)).getFileContentRange("a", ContentCodec.IDENTITY, 10, 5);
+    }
+
+    @Test
+    void shouldKeepOtherFilesCached_WhenOneFileDeleted() {
+        when(delegate.getFileContent("a", ContentCodec.IDENTITY)).thenReturn("aaaaaaaaaa");
+        when(delegate.getFileContent("b", ContentCodec.IDENTITY)).thenReturn("bbbbbbbbbb");
+
+        cachingFileStorage.getFileContent("a", ContentCodec.IDENTITY);
+        cachingFileStorage.getFileContent("b", ContentCodec.IDENTITY);
+        cachingFileStorage.deleteFile("a");
+        cachingFileStorage.getFileContent("b", ContentCodec.IDENTITY);
+
+        verify(delegate, times(1)).getFileContent("b", ContentCodec.IDENTITY);
+        assertEquals(20, meterRegistry.get("file.storage.cache.size").gauge().value());
+        assertEquals(1, meterRegistry.get("file.storage.cache.entries").gauge().value());
+    }
+}
@@ -0,0 +1,103 @@
+package pl.kamil.content_service.infrastructure;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import pl.kamil.content_service.shared.security.UserJwt;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingJwtDecoderTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    private final AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2024-05-01T10:00:00Z"));
+    private final AtomicInteger decoded = new AtomicInteger();
+    private final CachingJwtDecoder decoder = new CachingJwtDecoder(token -> {
+        decoded.incrementAndGet();
+        if (token.startsWith("bad")) {
+            throw new BadJwtException("Invalid signature");
+        }
+        return Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject("user")
+                .claim("user_id", token.startsWith("anonymous") ? "not-a-uuid" : USER_ID.toString())
+                .issuedAt(now.get())
+                .expiresAt(now.get().plusSeconds(60))
+                .build();
+    }, 2, Duration.ofMinutes(5), new SimpleMeterRegistry(), now::get);
+
+    @Test
+    void shouldVerifyTokenOnce_UntilItExpires() {
+        // Given
+        Jwt first = decoder.decode("token");
+
+        // When
+        now.set(now.get().plusSeconds(59));
+        Jwt cached = decoder.decode("token");
+        now.set(now.get().plusSeconds(1));
+        Jwt expired = decoder.decode("token");
+
+        // Then
+        assertSame(first, cached);
+        assertNotSame(first, expired);
+        assertEquals(2, decoded.get());
+    }
+
+    @Test
+    void shouldNotRememberRejectedTokens() {
+        // When
+        assertThrows(BadJwtException.class, () -> decoder.decode("bad-token"));
+        assertThrows(BadJwtException.class, () -> decoder.decode("bad-token"));
+
+        // Then
+        assertEquals(2, decoded.get());
+    }
+
+    @Test
+    void shouldKeepParsedUserIdWithCachedToken() {
+        // Given
+        decoder.decode("token");
+
+        // When
+        Jwt cached = decoder.decode("token");
+
+        // Then
+        UserJwt userJwt = assertInstanceOf(UserJwt.class, cached);
+        assertEquals(USER_ID, userJwt.getUserId());
+        assertEquals(1, decoded.get());
+    }
+
+    @Test
+    void shouldRejectAndNotRememberToken_WhenUserIdMalformed() {
+        // When
+        assertThrows(BadJwtException.class, () -> decoder.decode("anonymous-token"));
+        assertThrows(BadJwtException.class, () -> decoder.decode("anonymous-token"));
+
+        // Then
+        assertEquals(2, decoded.get());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedToken_WhenFull() {
+        // Given
+        decoder.decode("a");
+        decoder.decode("b");
+        decoder.decode("a");
+
+        // When
+        decoder.decode("c");
+        decoder.decode("a");
+        decoder.decode("b");
+
+        // Then
+        assertEquals(4, decoded.get());
+    }
+}
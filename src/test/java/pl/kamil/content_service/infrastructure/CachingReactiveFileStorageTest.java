@@ -0,0 +1,66 @@
+package pl.kamil.content_service.infrastructure;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import pl.kamil.content_service.application.port.out.FileStorage;
+import pl.kamil.content_service.application.port.out.ReactiveFileStorage;
+import pl.kamil.content_service.domain.ContentCodec;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class CachingReactiveFileStorageTest {
+
+    private final AtomicInteger downloads = new AtomicInteger();
+    private final ReactiveFileStorage delegate = (fileKey, codec, offset, length) -> Flux.defer(() -> {
+        downloads.incrementAndGet();
+        return Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(
+                ("text of " + fileKey).getBytes(StandardCharsets.UTF_8)));
+    });
+
+    private SimpleMeterRegistry meterRegistry;
+    private TextCache cache;
+    private CachingReactiveFileStorage cachingStorage;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new TextCache(1024, meterRegistry);
+        cachingStorage = new CachingReactiveFileStorage(delegate, cache);
+    }
+
+    @Test
+    void shouldServeSecondReadFromCache() {
+        // Given
+        cachingStorage.readFileText("a", ContentCodec.IDENTITY).block();
+
+        // When
+        String content = cachingStorage.readFileText("a", ContentCodec.IDENTITY).block();
+
+        // Then
+        assertEquals("text of a", content);
+        assertEquals(1, downloads.get());
+        assertEquals(1, meterRegistry.counter("file.storage.cache.requests", "result", "hit").count());
+    }
+
+    @Test
+    void shouldShareCacheWithBlockingStack_WhenFileDeletedThroughIt() {
+        // Given
+        CachingFileStorage blocking = new CachingFileStorage(
+                mock(FileStorage.class), cache);
+        cachingStorage.readFileText("a", ContentCodec.IDENTITY).block();
+
+        // When
+        blocking.deleteFile("a");
+        cachingStorage.readFileText("a", ContentCodec.IDENTITY).block();
+
+        // Then
+        assertEquals(2, downloads.get());
+    }
+}
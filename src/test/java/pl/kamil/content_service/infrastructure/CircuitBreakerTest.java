@@ -0,0 +1,62 @@
+package pl.kamil.content_service.infrastructure;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(2, Duration.ofSeconds(10), now::get);
+
+    @Test
+    void shouldOpenAfterConsecutiveFailuresAndRejectCalls() {
+        // Given
+        circuitBreaker.tryAcquire();
+        circuitBreaker.onFailure();
+        circuitBreaker.tryAcquire();
+        circuitBreaker.onFailure();
+
+        // When / Then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+        assertFalse(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void shouldLetOneTrialThroughAfterOpenDuration_AndCloseOnSuccess() {
+        // Given
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        // When
+        boolean trial = circuitBreaker.tryAcquire();
+        boolean concurrent = circuitBreaker.tryAcquire();
+        circuitBreaker.onSuccess();
+
+        // Then
+        assertTrue(trial);
+        assertFalse(concurrent);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+        assertTrue(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void shouldReopen_WhenTrialFails() {
+        // Given
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        circuitBreaker.tryAcquire();
+
+        // When
+        circuitBreaker.onFailure();
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+        assertFalse(circuitBreaker.tryAcquire());
+    }
+}
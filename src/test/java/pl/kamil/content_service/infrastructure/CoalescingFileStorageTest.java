@@ -0,0 +1,82 @@
+package pl.kamil.content_service.infrastructure;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.kamil.content_service.application.port.out.FileStorage;
+import pl.kamil.content_service.domain.ContentCodec;
+import pl.kamil.content_service.infrastructure.exception.FileStorageException;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CoalescingFileStorageTest {
+
+    @Mock
+    private FileStorage delegate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CoalescingFileStorage coalescingFileStorage;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescingFileStorage = new CoalescingFileStorage(delegate, meterRegistry);
+    }
+
+    @Test
+    void shouldShareOneDownload_WhenSameKeyReadConcurrently() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.getFileContent("a", ContentCodec.IDENTITY)).thenAnswer(invocation -> {
+            release.await();
+            return "text";
+        });
+
+        // When
+        List<Future<String>> readers;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            readers = List.of(
+                    executor.submit(() -> coalescingFileStorage.getFileContent("a", ContentCodec.IDENTITY)),
+                    executor.submit(() -> coalescingFileStorage.getFileContent("a", ContentCodec.IDENTITY)),
+                    executor.submit(() -> coalescingFileStorage.getFileContent("a", ContentCodec.IDENTITY)));
+            // the other two readers are waiting on the first one's download
+            while (meterRegistry.counter("file.storage.coalesced").count() < 2) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+        }
+
+        // Then
+        for (Future<String> reader : readers) {
+            assertEquals("text", reader.get());
+        }
+        verify(delegate, times(1)).getFileContent("a", ContentCodec.IDENTITY);
+    }
+
+    @Test
+    void shouldFetchAgain_WhenPreviousDownloadFailed() {
+        // Given
+        when(delegate.getFileContent("a", ContentCodec.IDENTITY))
+                .thenThrow(new FileStorageException("down"))
+                .thenReturn("text");
+
+        // When
+        assertThrows(FileStorageException.class, () -> coalescingFileStorage.getFileContent("a", ContentCodec.IDENTITY));
+        String content = coalescingFileStorage.getFileContent("a", ContentCodec.IDENTITY);
+
+        // Then
+        assertEquals("text", content);
+        verify(delegate, times(2)).getFileContent("a", ContentCodec.IDENTITY);
+    }
+}
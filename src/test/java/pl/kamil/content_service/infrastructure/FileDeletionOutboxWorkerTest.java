@@ -0,0 +1,183 @@
+package pl.kamil.content_service.infrastructure;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.kamil.content_service.application.port.out.FileStorage;
+import pl.kamil.content_service.infrastructure.exception.FileStorageException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class FileDeletionOutboxWorkerTest {
+
+    @Mock
+    private PendingFileDeletionRepository pendingFileDeletionRepository;
+
+    @Mock
+    private FileStorage fileStorage;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private FileDeletionOutboxWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        worker = worker(false);
+    }
+
+    @Test
+    void shouldDeleteFilesAndRemoveRows_WhenStorageSucceeds() {
+        // Given
+        List<PendingFileDeletion> batch = List.of(
+                PendingFileDeletion.of("key-1", UUID.randomUUID()),
+                PendingFileDeletion.of("key-2", UUID.randomUUID()));
+        when(pendingFileDeletionRepository.findDue(any(Instant.class), eq(3), eq(Limit.of(100)))).thenReturn(batch);
+
+        // When
+        worker.drain();
+
+        // Then
+        verify(fileStorage).deleteFile("key-1");
+        verify(fileStorage).deleteFile("key-2");
+        verify(pendingFileDeletionRepository).deleteAllByIdInBatch(List.of("key-1", "key-2"));
+        verify(pendingFileDeletionRepository, never()).saveAll(anyIterable());
+        // two short transactions, none open while storage was called
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void shouldRescheduleOnlyTheFailedFile_WhenOneDeleteFails() {
+        // Given
+        PendingFileDeletion failing = PendingFileDeletion.of("key-1", UUID.randomUUID());
+        PendingFileDeletion succeeding = PendingFileDeletion.of("key-2", UUID.randomUUID());
+        when(pendingFileDeletionRepository.findDue(any(Instant.class), eq(3), eq(Limit.of(100))))
+                .thenReturn(List.of(failing, succeeding));
+        doThrow(new FileStorageException("down")).when(fileStorage).deleteFile("key-1");
+
+        // When
+        worker.drain();
+
+        // Then
+        assertEquals(1, failing.getAttempts());
+        assertEquals("down", failing.getLastError());
+        assertTrue(failing.getNextAttemptAt().isAfter(Instant.now()));
+        assertEquals(0, succeeding.getAttempts());
+        verify(pendingFileDeletionRepository).deleteAllByIdInBatch(List.of("key-2"));
+        verify(pendingFileDeletionRepository).saveAll(List.of(failing));
+    }
+
+    @Test
+    void shouldLeaseClaimedRows_SoOtherInstancesSkipThemWhileStorageIsCalled() {
+        // Given
+        PendingFileDeletion deletion = PendingFileDeletion.of("key-1", UUID.randomUUID());
+        when(pendingFileDeletionRepository.findDue(any(Instant.class), eq(3), eq(Limit.of(100)))).thenReturn(List.of(deletion));
+        List<Instant> leasedUntil = new ArrayList<>();
+        doAnswer(invocation -> leasedUntil.add(deletion.getNextAttemptAt())).when(fileStorage).deleteFile("key-1");
+
+        // When
+        worker.drain();
+
+        // Then
+        assertTrue(leasedUntil.get(0).isAfter(Instant.now().plusSeconds(60)));
+    }
+
+    @Test
+    void shouldPresentServiceToken_WhenDeletingFromScheduledThread() {
+        // Given
+        when(pendingFileDeletionRepository.findDue(any(Instant.class), eq(3), eq(Limit.of(100))))
+                .thenReturn(List.of(PendingFileDeletion.of("key-1", UUID.randomUUID())));
+        List<String> tokens = new ArrayList<>();
+        doAnswer(invocation -> tokens.add(TokenRelayInterceptor.currentToken())).when(fileStorage).deleteFile("key-1");
+
+        // When
+        worker.drain();
+
+        // Then
+        assertEquals(List.of("service-token"), tokens);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void shouldDeleteTheWholeBatchInOneCall_WhenBatchDeleteEnabled() {
+        // Given
+        FileDeletionOutboxWorker batchWorker = worker(true);
+        when(pendingFileDeletionRepository.findDue(any(Instant.class), eq(3), eq(Limit.of(100)))).thenReturn(List.of(
+                PendingFileDeletion.of("key-1", UUID.randomUUID()),
+                PendingFileDeletion.of("key-2", UUID.randomUUID())));
+        List<String> tokens = new ArrayList<>();
+        doAnswer(invocation -> tokens.add(TokenRelayInterceptor.currentToken())).when(fileStorage).deleteFiles(anyCollection());
+
+        // When
+        batchWorker.drain();
+
+        // Then
+        verify(fileStorage).deleteFiles(List.of("key-1", "key-2"));
+        verify(fileStorage, never()).deleteFile(anyString());
+        assertEquals(List.of("service-token"), tokens);
+        verify(pendingFileDeletionRepository).deleteAllByIdInBatch(List.of("key-1", "key-2"));
+    }
+
+    @Test
+    void shouldFallBackToSingleDeletes_WhenBatchDeleteFails() {
+        // Given
+        FileDeletionOutboxWorker batchWorker = worker(true);
+        PendingFileDeletion failing = PendingFileDeletion.of("key-1", UUID.randomUUID());
+        PendingFileDeletion succeeding = PendingFileDeletion.of("key-2", UUID.randomUUID());
+        when(pendingFileDeletionRepository.findDue(any(Instant.class), eq(3), eq(Limit.of(100))))
+                .thenReturn(List.of(failing, succeeding));
+        doThrow(new FileStorageException("refused")).when(fileStorage).deleteFiles(anyCollection());
+        doThrow(new FileStorageException("refused")).when(fileStorage).deleteFile("key-1");
+
+        // When
+        batchWorker.drain();
+
+        // Then
+        verify(fileStorage).deleteFile("key-2");
+        verify(pendingFileDeletionRepository).deleteAllByIdInBatch(List.of("key-2"));
+        verify(pendingFileDeletionRepository).saveAll(List.of(failing));
+        assertEquals(1, failing.getAttempts());
+    }
+
+    @Test
+    void shouldRefuseToStart_WhenServiceTokenMissing() {
+        assertThrows(IllegalStateException.class, () -> new FileDeletionOutboxWorker(
+                pendingFileDeletionRepository,
+                fileStorage,
+                new TransactionTemplate(transactionManager),
+                100, 3, 1000, 60000, 300000, false,
+                " "));
+    }
+
+    @Test
+    void shouldDoNothing_WhenOutboxEmpty() {
+        when(pendingFileDeletionRepository.findDue(any(Instant.class), anyInt(), any(Limit.class))).thenReturn(List.of());
+
+        worker.drain();
+
+        verifyNoInteractions(fileStorage);
+    }
+
+    private FileDeletionOutboxWorker worker(boolean batchDelete) {
+        return new FileDeletionOutboxWorker(
+                pendingFileDeletionRepository,
+                fileStorage,
+                new TransactionTemplate(transactionManager),
+                100, 3, 1000, 60000, 300000, batchDelete,
+                "service-token");
+    }
+}
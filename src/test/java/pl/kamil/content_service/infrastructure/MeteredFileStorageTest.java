@@ -0,0 +1,66 @@
+package pl.kamil.content_service.infrastructure;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.kamil.content_service.application.port.out.FileStorage;
+import pl.kamil.content_service.application.port.out.FileUpload;
+import pl.kamil.content_service.application.port.out.StoredFile;
+import pl.kamil.content_service.domain.ContentCodec;
+import pl.kamil.content_service.infrastructure.exception.FileStorageException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MeteredFileStorageTest {
+
+    @Mock
+    private FileStorage delegate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MeteredFileStorage meteredFileStorage;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        meteredFileStorage = new MeteredFileStorage(delegate, meterRegistry);
+    }
+
+    @Test
+    void shouldRecordCallAndBytesSent_WhenFileStored() {
+        // Given
+        when(delegate.storeFile(any(FileUpload.class))).thenAnswer(invocation -> {
+            FileUpload upload = invocation.getArgument(0);
+            upload.content().readAllBytes();
+            return new StoredFile("key");
+        });
+
+        // When
+        meteredFileStorage.storeFile(new FileUpload("a.txt", "text/plain", 7, new ByteArrayInputStream("żółw".getBytes(StandardCharsets.UTF_8))));
+
+        // Then
+        assertEquals(1, meterRegistry.get("file.storage.requests").tags("method", "store", "outcome", "success").timer().count());
+        assertEquals(7, meterRegistry.get("file.storage.payload").tag("method", "store").summary().totalAmount());
+    }
+
+    @Test
+    void shouldRecordErrorOutcome_WhenReadFails() {
+        // Given
+        when(delegate.getFileContent("key", ContentCodec.IDENTITY)).thenThrow(new FileStorageException("down"));
+
+        // When
+        assertThrows(FileStorageException.class, () -> meteredFileStorage.getFileContent("key", ContentCodec.IDENTITY));
+
+        // Then
+        assertEquals(1, meterRegistry.get("file.storage.requests").tags("method", "read", "outcome", "error").timer().count());
+        assertNull(meterRegistry.find("file.storage.payload").tag("method", "read").summary());
+    }
+}
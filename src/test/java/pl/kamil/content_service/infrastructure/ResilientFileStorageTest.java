@@ -0,0 +1,139 @@
+package pl.kamil.content_service.infrastructure;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import pl.kamil.content_service.application.port.out.FileStorage;
+import pl.kamil.content_service.domain.ContentCodec;
+import pl.kamil.content_service.infrastructure.exception.FileStorageException;
+import pl.kamil.content_service.shared.ErrorMessages;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ResilientFileStorageTest {
+
+    @Mock
+    private FileStorage delegate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ExecutorService executor;
+    private ResilientFileStorage resilientFileStorage;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        resilientFileStorage = resilientFileStorage(executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldHedgeAndTakeFasterAnswer_WhenFirstReadIsSlow() {
+        // Given
+        CountDownLatch never = new CountDownLatch(1);
+        AtomicInteger attempts = new AtomicInteger();
+        when(delegate.getFileContent("key", ContentCodec.IDENTITY)).thenAnswer(invocation -> {
+            if (attempts.getAndIncrement() == 0) {
+                never.await();
+            }
+            return "text";
+        });
+
+        // When
+        String content = resilientFileStorage.getFileContent("key", ContentCodec.IDENTITY);
+
+        // Then
+        assertEquals("text", content);
+        assertEquals(1, meterRegistry.counter("file.storage.hedge", "result", "fired").count());
+        assertEquals(1, meterRegistry.counter("file.storage.hedge", "result", "won").count());
+    }
+
+    @Test
+    void shouldFailFast_WhenCircuitIsOpen() {
+        // Given
+        // not hedged, a slow first call would otherwise reach the delegate twice
+        resilientFileStorage = resilientFileStorage(null);
+        when(delegate.getFileContent("key", ContentCodec.IDENTITY)).thenThrow(new FileStorageException("down", HttpStatus.SERVICE_UNAVAILABLE));
+        assertThrows(FileStorageException.class, () -> resilientFileStorage.getFileContent("key", ContentCodec.IDENTITY));
+        assertThrows(FileStorageException.class, () -> resilientFileStorage.getFileContent("key", ContentCodec.IDENTITY));
+
+        // When
+        Exception ex = assertThrows(FileStorageException.class,
+                () -> resilientFileStorage.getFileContent("key", ContentCodec.IDENTITY));
+
+        // Then
+        assertEquals(ErrorMessages.FILE_STORAGE_UNAVAILABLE, ex.getMessage());
+        verify(delegate, times(2)).getFileContent("key", ContentCodec.IDENTITY);
+        assertEquals(1, meterRegistry.counter("file.storage.circuit.rejected").count());
+    }
+
+    @Test
+    void shouldKeepCircuitClosed_WhenServiceAnswersWithClientError() {
+        // Given
+        when(delegate.getFileContent("missing", ContentCodec.IDENTITY))
+                .thenThrow(new FileStorageException("not found", HttpStatus.NOT_FOUND));
+        assertThrows(FileStorageException.class, () -> resilientFileStorage.getFileContent("missing", ContentCodec.IDENTITY));
+        assertThrows(FileStorageException.class, () -> resilientFileStorage.getFileContent("missing", ContentCodec.IDENTITY));
+        when(delegate.getFileContent("key", ContentCodec.IDENTITY)).thenReturn("text");
+
+        // When
+        String content = resilientFileStorage.getFileContent("key", ContentCodec.IDENTITY);
+
+        // Then
+        assertEquals("text", content);
+        assertEquals(0, meterRegistry.counter("file.storage.circuit.rejected").count());
+    }
+
+    @Test
+    void shouldDeleteAndLeaveCircuitAlone_WhenDeletesFail() {
+        // Given
+        doThrow(new FileStorageException("down", HttpStatus.SERVICE_UNAVAILABLE)).when(delegate).deleteFile("key");
+        assertThrows(FileStorageException.class, () -> resilientFileStorage.deleteFile("key"));
+        assertThrows(FileStorageException.class, () -> resilientFileStorage.deleteFile("key"));
+        when(delegate.getFileContent("key", ContentCodec.IDENTITY)).thenReturn("text");
+
+        // When
+        String content = resilientFileStorage.getFileContent("key", ContentCodec.IDENTITY);
+
+        // Then
+        assertEquals("text", content);
+        verify(delegate, times(2)).deleteFile("key");
+    }
+
+    @Test
+    void shouldTreatOnlyServerErrorsAndIoFailuresAsOutages() {
+        assertTrue(ResilientFileStorage.isOutage(new FileStorageException("down", HttpStatus.BAD_GATEWAY)));
+        assertTrue(ResilientFileStorage.isOutage(new FileStorageException("io", new IOException("reset"))));
+        assertTrue(ResilientFileStorage.isOutage(new IllegalStateException(new TimeoutException())));
+        assertFalse(ResilientFileStorage.isOutage(new FileStorageException("gone", HttpStatus.NOT_FOUND)));
+        assertFalse(ResilientFileStorage.isOutage(new IllegalArgumentException("bad range")));
+    }
+
+    private ResilientFileStorage resilientFileStorage(ExecutorService hedgeExecutor) {
+        return new ResilientFileStorage(
+                delegate,
+                new CircuitBreaker(2, Duration.ofMinutes(1)),
+                hedgeExecutor,
+                () -> new ResilientFileStorage.HedgeDelay(0.95, Duration.ofMillis(10), Duration.ofMillis(50)),
+                meterRegistry);
+    }
+}
@@ -0,0 +1,71 @@
+package pl.kamil.content_service.infrastructure;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import pl.kamil.content_service.application.port.out.ReactiveFileStorage;
+import pl.kamil.content_service.domain.ContentCodec;
+import pl.kamil.content_service.infrastructure.exception.FileStorageException;
+import pl.kamil.content_service.shared.ErrorMessages;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResilientReactiveFileStorageTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private SimpleMeterRegistry meterRegistry;
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        circuitBreaker = new CircuitBreaker(2, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void shouldFailFast_WhenCircuitIsOpen() {
+        // Given
+        ResilientReactiveFileStorage storage = storageFailingWith(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThrows(FileStorageException.class, () -> storage.readFileText("key", ContentCodec.IDENTITY).block());
+        assertThrows(FileStorageException.class, () -> storage.readFileText("key", ContentCodec.IDENTITY).block());
+
+        // When
+        Exception ex = assertThrows(FileStorageException.class,
+                () -> storage.readFileText("key", ContentCodec.IDENTITY).block());
+
+        // Then
+        assertEquals(ErrorMessages.FILE_STORAGE_UNAVAILABLE, ex.getMessage());
+        assertEquals(2, calls.get());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+        assertEquals(1, meterRegistry.counter("file.storage.circuit.rejected").count());
+    }
+
+    @Test
+    void shouldKeepCircuitClosed_WhenServiceAnswersWithClientError() {
+        // Given
+        ResilientReactiveFileStorage storage = storageFailingWith(HttpStatus.NOT_FOUND);
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            assertThrows(FileStorageException.class, () -> storage.readFileText("key", ContentCodec.IDENTITY).block());
+        }
+
+        // Then
+        assertEquals(3, calls.get());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+    }
+
+    private ResilientReactiveFileStorage storageFailingWith(HttpStatus status) {
+        ReactiveFileStorage delegate = (fileKey, codec, offset, length) -> Flux.defer(() -> {
+            calls.incrementAndGet();
+            return Flux.error(new FileStorageException(ErrorMessages.FILE_STORAGE_RESPONSE_INVALID, status));
+        });
+        return new ResilientReactiveFileStorage(delegate, circuitBreaker, meterRegistry);
+    }
+}
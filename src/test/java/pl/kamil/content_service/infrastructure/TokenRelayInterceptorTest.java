@@ -0,0 +1,54 @@
+package pl.kamil.content_service.infrastructure;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenRelayInterceptorTest {
+
+    private final TokenRelayInterceptor interceptor = new TokenRelayInterceptor();
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldRelayToken_WhenRequestHandledOnVirtualThread() throws InterruptedException {
+        // Given
+        Jwt jwt = Jwt.withTokenValue("token-value")
+                .header("alg", "none")
+                .subject("user")
+                .build();
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create("http://files/key"));
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        // When
+        Thread thread = Thread.ofVirtual().start(() -> {
+            try {
+                SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+                interceptor.intercept(request, new byte[0], (req, body) -> new MockClientHttpResponse());
+            } catch (Throwable e) {
+                failure.set(e);
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+        });
+        thread.join();
+
+        // Then
+        assertNull(failure.get());
+        assertEquals("Bearer token-value", request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+    }
+}
@@ -0,0 +1,149 @@
+package pl.kamil.content_service.infrastructure;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import pl.kamil.content_service.application.port.out.FileUpload;
+import pl.kamil.content_service.application.port.out.StoredFile;
+import pl.kamil.content_service.domain.ContentCodec;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WebClientFileStorageTest {
+
+    private static final String TEXT = "Default file content with more than one page";
+
+    private final List<ClientRequest> requests = new ArrayList<>();
+
+    @Test
+    void shouldRequestOnlyTheRange_WhenCodecSupportsRanges() {
+        // Given
+        byte[] slice = TEXT.substring(13, 25).getBytes(StandardCharsets.UTF_8);
+        WebClientFileStorage storage = storageAnswering(HttpStatus.PARTIAL_CONTENT, slice);
+
+        // When
+        String content = storage.getFileContentRange("key", ContentCodec.IDENTITY, 13, 12);
+
+        // Then
+        assertEquals("content with", content);
+        assertEquals("bytes=13-24", requests.get(0).headers().getFirst(HttpHeaders.RANGE));
+    }
+
+    @Test
+    void shouldInflateAndSkipToTheRange_WhenObjectIsDeflated() throws IOException {
+        // Given
+        byte[] deflated = ContentCodec.DEFLATE.encode(
+                new ByteArrayInputStream(TEXT.getBytes(StandardCharsets.UTF_8))).readAllBytes();
+        WebClientFileStorage storage = storageAnswering(HttpStatus.OK, deflated);
+
+        // When
+        String content = storage.getFileContentRange("key", ContentCodec.DEFLATE, 13, 12);
+
+        // Then
+        assertEquals("content with", content);
+        assertNull(requests.get(0).headers().getFirst(HttpHeaders.RANGE));
+    }
+
+    @Test
+    void shouldWriteToTheOutputStreamOffTheThreadTheBodyArrivesOn() throws IOException {
+        // Given
+        Scheduler eventLoop = Schedulers.newSingle("event-loop");
+        WebClientFileStorage storage = storageAnswering(HttpStatus.OK, TEXT.getBytes(StandardCharsets.UTF_8), eventLoop);
+        Set<String> writers = ConcurrentHashMap.newKeySet();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(byte[] bytes, int offset, int length) {
+                writers.add(Thread.currentThread().getName());
+                super.write(bytes, offset, length);
+            }
+        };
+
+        // When
+        try {
+            storage.copyFileContent("key", ContentCodec.IDENTITY, 0, Long.MAX_VALUE, out);
+        } finally {
+            eventLoop.dispose();
+        }
+
+        // Then
+        assertEquals(TEXT, out.toString(StandardCharsets.UTF_8));
+        assertFalse(writers.isEmpty());
+        assertTrue(writers.stream().noneMatch(thread -> thread.startsWith("event-loop")));
+    }
+
+    @Test
+    void shouldRecordTheCodecTheFileServiceReports() {
+        // Given
+        WebClientFileStorage storage = storageAnswering(HttpStatus.OK, """
+                {"s3Key": "stored", "codec": "DEFLATE"}""".getBytes(StandardCharsets.UTF_8));
+
+        // When
+        StoredFile stored = storage.storeFile(upload());
+
+        // Then
+        assertEquals(new StoredFile("stored", ContentCodec.DEFLATE), stored);
+    }
+
+    @Test
+    void shouldRecordTheCodecSent_WhenFileServiceReportsNone() {
+        // Given
+        WebClientFileStorage storage = storageAnswering(HttpStatus.OK, """
+                {"s3Key": "stored"}""".getBytes(StandardCharsets.UTF_8));
+
+        // When
+        StoredFile stored = storage.storeFile(upload());
+
+        // Then
+        assertEquals(new StoredFile("stored", ContentCodec.IDENTITY), stored);
+    }
+
+    private static FileUpload upload() {
+        byte[] content = TEXT.getBytes(StandardCharsets.UTF_8);
+        return new FileUpload("lesson.txt", "text/plain", content.length, new ByteArrayInputStream(content));
+    }
+
+    private WebClientFileStorage storageAnswering(HttpStatus status, byte[] body) {
+        return storageAnswering(status, body, Schedulers.immediate());
+    }
+
+    // the body arrives in small buffers, as it would from the network, on the given thread
+    private WebClientFileStorage storageAnswering(HttpStatus status, byte[] body, Scheduler arrival) {
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (int from = 0; from < body.length; from += 5) {
+            buffers.add(DefaultDataBufferFactory.sharedInstance.wrap(
+                    Arrays.copyOfRange(body, from, Math.min(from + 5, body.length))));
+        }
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    requests.add(request);
+                    Flux<DataBuffer> arriving = Flux.fromIterable(buffers).publishOn(arrival);
+                    return Mono.just(ClientResponse.create(status)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .body(arriving)
+                            .build());
+                })
+                .build();
+        return new WebClientFileStorage(webClient, "http://files", false, ContentCodec.IDENTITY, Duration.ofSeconds(60));
+    }
+}
@@ -0,0 +1,181 @@
+package pl.kamil.content_service.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.kamil.content_service.api.response.LessonImportResponse;
+import pl.kamil.content_service.application.LessonImportService;
+import pl.kamil.content_service.application.LessonMetrics;
+import pl.kamil.content_service.application.port.out.FileStorage;
+import pl.kamil.content_service.application.port.out.FileUpload;
+import pl.kamil.content_service.application.port.out.StoredFile;
+import pl.kamil.content_service.domain.LessonFactory;
+import pl.kamil.content_service.infrastructure.ContentBoundariesRepository;
+import pl.kamil.content_service.infrastructure.ContentPageIndexRepository;
+import pl.kamil.content_service.infrastructure.LessonRepository;
+import pl.kamil.content_service.shared.ErrorMessages;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LessonImportServiceTest {
+
+    @Mock
+    private LessonRepository lessonRepository;
+
+    @Mock
+    private ContentPageIndexRepository contentPageIndexRepository;
+
+    @Mock
+    private ContentBoundariesRepository contentBoundariesRepository;
+
+    @Mock
+    private FileStorage fileStorage;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ExecutorService executor;
+    private LessonImportService lessonImportService;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        lessonImportService = importService(4 * 1_048_576);
+    }
+
+    private LessonImportService importService(long maxBytes) {
+        return new LessonImportService(
+                lessonRepository,
+                contentPageIndexRepository,
+                contentBoundariesRepository,
+                new TransactionTemplate(transactionManager),
+                fileStorage,
+                executor,
+                10,
+                maxBytes,
+                0,
+                new LessonMetrics(new SimpleMeterRegistry()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldImportArchiveEntriesAndReportFailuresPerFile() throws IOException {
+        // Given
+        MockMultipartFile archive = new MockMultipartFile("archive", "course.zip", "application/zip", zip(
+                "course/", new byte[0],
+                "course/intro.txt", "Hello world".getBytes(StandardCharsets.UTF_8),
+                "course/huge.txt", new byte[1_048_577]));
+
+        when(fileStorage.storeFile(any(FileUpload.class))).thenAnswer(invocation -> {
+            FileUpload upload = invocation.getArgument(0);
+            upload.content().readAllBytes();
+            return new StoredFile(LessonFactory.DEFAULT_S3_KEY);
+        });
+        when(lessonRepository.saveAll(anyIterable())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        LessonImportResponse response = lessonImportService.importArchive(archive, LessonFactory.TEST_USER_ID);
+
+        // Then
+        assertEquals(1, response.imported().size());
+        assertEquals("intro.txt", response.imported().get(0).title());
+        assertEquals(List.of(new LessonImportResponse.Failure("huge.txt", ErrorMessages.IMPORT_FILE_TOO_LARGE)),
+                response.failed());
+        verify(fileStorage, times(1)).storeFile(any(FileUpload.class));
+        verify(lessonRepository, times(1)).saveAll(anyIterable());
+        verify(contentPageIndexRepository).saveAll(argThat(pageIndexes -> pageIndexes.iterator().hasNext()));
+        verify(contentBoundariesRepository).saveAll(argThat(boundaries -> boundaries.iterator().hasNext()));
+    }
+
+    @Test
+    void shouldStopImportingArchive_WhenUnpackedSizeExceedsLimit() throws IOException {
+        // Given
+        lessonImportService = importService(16);
+        MockMultipartFile archive = new MockMultipartFile("archive", "course.zip", "application/zip", zip(
+                "one.txt", "Hello world".getBytes(StandardCharsets.UTF_8),
+                "two.txt", "Hello again".getBytes(StandardCharsets.UTF_8),
+                "three.txt", "Never read".getBytes(StandardCharsets.UTF_8)));
+
+        when(fileStorage.storeFile(any(FileUpload.class))).thenAnswer(invocation -> {
+            FileUpload upload = invocation.getArgument(0);
+            upload.content().readAllBytes();
+            return new StoredFile(LessonFactory.DEFAULT_S3_KEY);
+        });
+        when(lessonRepository.saveAll(anyIterable())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        LessonImportResponse response = lessonImportService.importArchive(archive, LessonFactory.TEST_USER_ID);
+
+        // Then
+        assertEquals(1, response.imported().size());
+        assertEquals(List.of(new LessonImportResponse.Failure("two.txt", ErrorMessages.IMPORT_TOO_LARGE)),
+                response.failed());
+        verify(fileStorage, times(1)).storeFile(any(FileUpload.class));
+    }
+
+    @Test
+    void shouldRejectFiles_WhenTotalSizeExceedsLimit() {
+        // Given
+        lessonImportService = importService(16);
+        MockMultipartFile first = new MockMultipartFile("files", "one.txt", "text/plain", "Hello world".getBytes(StandardCharsets.UTF_8));
+        MockMultipartFile second = new MockMultipartFile("files", "two.txt", "text/plain", "Hello again".getBytes(StandardCharsets.UTF_8));
+
+        // When
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> lessonImportService.importFiles(List.of(first, second), LessonFactory.TEST_USER_ID));
+
+        // Then
+        assertEquals(ErrorMessages.IMPORT_TOO_LARGE, e.getMessage());
+        verifyNoInteractions(fileStorage);
+    }
+
+    @Test
+    void shouldCleanupUploadedFiles_WhenSavingFails() {
+        // Given
+        MockMultipartFile file = LessonFactory.createMockFile();
+        when(fileStorage.storeFile(any(FileUpload.class))).thenReturn(new StoredFile(LessonFactory.DEFAULT_S3_KEY));
+        when(lessonRepository.saveAll(anyIterable())).thenThrow(new IllegalStateException("db down"));
+
+        // When
+        assertThrows(IllegalStateException.class,
+                () -> lessonImportService.importFiles(List.of(file), LessonFactory.TEST_USER_ID));
+
+        // Then
+        verify(fileStorage).deleteFiles(List.of(LessonFactory.DEFAULT_S3_KEY));
+    }
+
+    private static byte[] zip(Object... nameAndContent) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (int i = 0; i < nameAndContent.length; i += 2) {
+                zip.putNextEntry(new ZipEntry((String) nameAndContent[i]));
+                zip.write((byte[]) nameAndContent[i + 1]);
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -1,37 +1,71 @@
 package pl.kamil.content_service.services;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.multipart.MultipartFile;
+import pl.kamil.content_service.application.ContentIndexes;
+import pl.kamil.content_service.application.LessonCursor;
+import pl.kamil.content_service.application.LessonMetrics;
 import pl.kamil.content_service.application.LessonService;
+import pl.kamil.content_service.application.TextPaginator;
+import pl.kamil.content_service.application.event.LessonDeleteEvent;
+import pl.kamil.content_service.application.event.LessonsDeleteEvent;
+import pl.kamil.content_service.application.port.out.FileUpload;
+import pl.kamil.content_service.application.port.out.StoredFile;
 import pl.kamil.content_service.shared.ErrorMessages;
-import pl.kamil.content_service.api.response.FileUploadResponse;
+import pl.kamil.content_service.api.response.LessonContentResponse;
 import pl.kamil.content_service.api.response.LessonResponse;
 import pl.kamil.content_service.api.response.PagedResponse;
 import pl.kamil.content_service.application.exception.FileProcessingException;
 import pl.kamil.content_service.application.exception.ForbiddenAccessException;
 import pl.kamil.content_service.application.exception.ResourceNotFoundException;
+import pl.kamil.content_service.domain.Content;
+import pl.kamil.content_service.domain.ContentBoundaries;
+import pl.kamil.content_service.domain.ContentChunk;
+import pl.kamil.content_service.domain.ContentCodec;
+import pl.kamil.content_service.domain.ContentPageIndex;
+import pl.kamil.content_service.domain.ContentVersion;
 import pl.kamil.content_service.domain.Lesson;
+import pl.kamil.content_service.domain.LessonFileKey;
+import pl.kamil.content_service.domain.LessonSummary;
+import pl.kamil.content_service.domain.PageIndex;
+import pl.kamil.content_service.domain.PaginationUnit;
+import pl.kamil.content_service.infrastructure.ContentBoundariesRepository;
+import pl.kamil.content_service.infrastructure.ContentPageIndexRepository;
 import pl.kamil.content_service.infrastructure.FileStorageClient;
 import pl.kamil.content_service.infrastructure.LessonRepository;
 import pl.kamil.content_service.domain.LessonFactory;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,12 +74,26 @@ public class LessonServiceTest {
     @Mock
     private LessonRepository lessonRepository;
 
+    @Mock
+    private ContentPageIndexRepository contentPageIndexRepository;
+
+    @Mock
+    private ContentBoundariesRepository contentBoundariesRepository;
+
+    @Mock
+    private ContentIndexes contentIndexes;
+
     @Mock
     private FileStorageClient fileStorageClient;
 
     @Mock
     private ApplicationEventPublisher eventPublisher;
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private LessonMetrics lessonMetrics = new LessonMetrics(meterRegistry);
+
     @InjectMocks
     private LessonService lessonService;
 
@@ -59,18 +107,18 @@ public class LessonServiceTest {
         // Given
         MultipartFile mockFile = LessonFactory.createMockFile();
 
-        FileUploadResponse response = new FileUploadResponse(LessonFactory.DEFAULT_S3_KEY);
+        StoredFile response = new StoredFile(LessonFactory.DEFAULT_S3_KEY);
         Lesson lesson = LessonFactory.createLessonWithContent();
 
         // When
-        when(fileStorageClient.storeFile(mockFile)).thenReturn(response);
+        when(fileStorageClient.storeFile(any(FileUpload.class))).thenReturn(response);
         when(lessonRepository.save(any(Lesson.class))).thenReturn(lesson);
 
         // Then
         LessonResponse lessonResponse= lessonService.createLesson(mockFile, userId);
 
         assertEquals(lessonId, lessonResponse.id());
-        verify(fileStorageClient).storeFile(mockFile);
+        verify(fileStorageClient).storeFile(any(FileUpload.class));
         verify(lessonRepository).save(any(Lesson.class));
 
     }
@@ -84,7 +132,7 @@ public class LessonServiceTest {
                 "text/plain",
                 "Hello, World!".getBytes()
         );
-        when(fileStorageClient.storeFile(mockFile))
+        when(fileStorageClient.storeFile(any(FileUpload.class)))
                 .thenThrow(new RestClientException("Invalid response from file storage service"));
 
         // When
@@ -93,7 +141,7 @@ public class LessonServiceTest {
         // Then
         assertTrue(exception.getMessage().contains("Invalid response from file storage service"));
         verify(lessonRepository, never()).save(any());
-        verify(fileStorageClient).storeFile(mockFile);
+        verify(fileStorageClient).storeFile(any(FileUpload.class));
     }
 
     @Test
@@ -107,7 +155,7 @@ public class LessonServiceTest {
         );
         
 
-        when(fileStorageClient.storeFile(mockFile)).thenThrow(new FileProcessingException("Failed to read file content"));
+        when(fileStorageClient.storeFile(any(FileUpload.class))).thenThrow(new FileProcessingException("Failed to read file content"));
 
         // When
 
@@ -116,7 +164,7 @@ public class LessonServiceTest {
         //Then
         assertTrue(exception.getMessage().contains("Failed to read file content"));
         verify(lessonRepository, never()).save(any());
-        verify(fileStorageClient).storeFile(mockFile);
+        verify(fileStorageClient).storeFile(any(FileUpload.class));
     }
 
     @Test
@@ -126,8 +174,8 @@ public class LessonServiceTest {
 
         Lesson mockSavedLesson = LessonFactory.createLessonWithContent();
 
-        when(fileStorageClient.storeFile(mockFile)).
-                thenReturn(new FileUploadResponse(LessonFactory.DEFAULT_S3_KEY));
+        when(fileStorageClient.storeFile(any(FileUpload.class))).
+                thenReturn(new StoredFile(LessonFactory.DEFAULT_S3_KEY));
 
         when(lessonRepository.save(any(Lesson.class)))
                 .thenAnswer(invocation -> mockSavedLesson);
@@ -140,12 +188,91 @@ public class LessonServiceTest {
                 lesson.getTitle().equals(mockSavedLesson.getTitle())));
     }
 
+    @Test
+    void shouldAnalyzeFileWhileItStreamsToStorage() {
+        // Given
+        MockMultipartFile mockFile = LessonFactory.createMockFile();
+        when(fileStorageClient.storeFile(any(FileUpload.class))).thenAnswer(invocation -> {
+            FileUpload upload = invocation.getArgument(0);
+            upload.content().readAllBytes();
+            return new StoredFile(LessonFactory.DEFAULT_S3_KEY);
+        });
+        when(lessonRepository.save(any(Lesson.class))).thenReturn(LessonFactory.createLessonWithContent());
+
+        // When
+        lessonService.createLesson(mockFile, userId);
+
+        // Then
+        verify(lessonRepository).save(argThat(lesson ->
+                lesson.getContent().getTotalWords() == 2 &&
+                lesson.getContent().getSizeBytes() == LessonFactory.DEFAULT_CONTENT.length));
+        verify(contentPageIndexRepository).save(argThat(index -> index.getPageIndex().pageCount() == 1));
+    }
+
+    @Test
+    void shouldStoreWholePagesPerChunkAndReadOneChunkPerPage_WhenChunkingEnabled() {
+        // Given
+        String text = "Lorem ipsum dolor sit amet, zażółć gęślą jaźń, consectetur adipiscing elit. ".repeat(12);
+
+        // When
+        SavedLesson saved = createLessonInMemory(text, 64);
+
+        // Then
+        Content content = saved.content();
+        PageIndex index = saved.pageIndex();
+        assertTrue(content.getChunks().size() > 1);
+        assertEquals(content.getChunks().stream().map(ContentChunk::getS3Key).toList(), content.fileKeys());
+        assertEquals(text, content.getChunks().stream().map(chunk -> saved.stored().get(chunk.getS3Key())).collect(Collectors.joining()));
+        int chunkStart = 0;
+        for (ContentChunk chunk : content.getChunks()) {
+            assertEquals(chunkStart, index.start(chunk.getFirstPage()));
+            chunkStart += saved.stored().get(chunk.getS3Key()).length();
+        }
+
+        // When
+        int lastPage = index.pageCount() - 1;
+        LessonContentResponse response = lessonService.getLessonContent(
+                lessonId, userId, lastPage, TextPaginator.DEFAULT_PAGE_SIZE, PaginationUnit.CHARS);
+
+        // Then
+        // pages come back trimmed, as TextPaginator cuts them
+        assertEquals(text.substring(index.start(lastPage), index.end(lastPage)).trim(), response.pagedResponse().content().get(0));
+        verify(fileStorageClient).getFileContent(content.chunkOf(lastPage).getS3Key(), ContentCodec.IDENTITY);
+        verify(fileStorageClient, never()).getFileContentRange(anyString(), any(), anyLong(), anyInt());
+        verify(contentIndexes, never()).boundaryIndex(any());
+    }
+
+    @Test
+    void getLessonContent_shouldCutWordAndSentencePagesFromBoundaries_AcrossChunks() {
+        // Given
+        String text = "First sentence here. Second one is longer, but not by much! Third?\n\nHeading\n\nLast words.";
+        SavedLesson saved = createLessonInMemory(text, 32);
+        when(contentIndexes.boundaryIndex(saved.content())).thenReturn(saved.boundaries().getBoundaryIndex());
+        String[] words = text.split("\\s+");
+
+        // When
+        PagedResponse<String> wordPage = lessonService.getLessonContent(lessonId, userId, 2, 4, PaginationUnit.WORDS)
+                .pagedResponse();
+        PagedResponse<String> sentencePage = lessonService.getLessonContent(lessonId, userId, 2, 1, PaginationUnit.SENTENCES)
+                .pagedResponse();
+
+        // Then
+        // the second chunk starts inside "Third?", both pages span the border
+        assertEquals(2, saved.content().getChunks().size());
+        assertEquals("not by much! Third?", wordPage.content().get(0));
+        assertEquals(words.length, wordPage.totalElements());
+        assertEquals((words.length + 3) / 4, wordPage.totalPages());
+        assertEquals("Third?", sentencePage.content().get(0));
+        assertEquals(5, sentencePage.totalPages());
+        verify(fileStorageClient, never()).getFileContentRange(anyString(), any(), anyLong(), anyInt());
+    }
+
     @Test
     void shouldSuccessfullyReturnLessonById() {
         // Given
-        Lesson lesson = LessonFactory.createLesson();
+        LessonSummary lesson = LessonFactory.createLessonSummary();
 
-        when(lessonRepository.findById(lessonId)).thenReturn(Optional.of(lesson));
+        when(lessonRepository.findSummaryById(lessonId)).thenReturn(Optional.of(lesson));
 
         // When
         LessonResponse response = lessonService.getLesson(lessonId, userId);
@@ -153,7 +280,8 @@ public class LessonServiceTest {
         // Then
         assertNotNull(response);
         assertEquals(lessonId, response.id());
-        verify(lessonRepository).findById(lessonId);
+        verify(lessonRepository).findSummaryById(lessonId);
+        verify(lessonRepository, never()).findById(any());
     }
 
     @Test
@@ -161,7 +289,7 @@ public class LessonServiceTest {
         
         
 
-        when(lessonRepository.findById(lessonId)).thenThrow(new ResourceNotFoundException("Lesson not found"));
+        when(lessonRepository.findSummaryById(lessonId)).thenReturn(Optional.empty());
 
         Exception exception = assertThrows(ResourceNotFoundException.class,
                 () -> lessonService.getLesson(lessonId, userId));
@@ -172,9 +300,9 @@ public class LessonServiceTest {
     @Test
     void shouldThrowException_WhenUserIsNotOwner() {
         // given
-        Lesson lesson = LessonFactory.createLesson();
+        LessonSummary lesson = LessonFactory.createLessonSummary();
 
-        when(lessonRepository.findById(lessonId)).thenReturn(Optional.of(lesson));
+        when(lessonRepository.findSummaryById(lessonId)).thenReturn(Optional.of(lesson));
 
         // expect
         Exception exception = assertThrows(ForbiddenAccessException.class, () -> lessonService.getLesson(lessonId, otherUserId));
@@ -186,10 +314,10 @@ public class LessonServiceTest {
     void shouldSuccessfullyGetAllLessonsForProvidedUserId() {
         int pageNo = 0;
         int pageSize = 10;
-        List<Lesson> lessons = LessonFactory.createLessonList(3);
-        Page<Lesson> lessonPage = new PageImpl<>(lessons, PageRequest.of(pageNo, pageSize), 3);
+        List<LessonSummary> lessons = LessonFactory.createLessonSummaryList(3);
+        Page<LessonSummary> lessonPage = new PageImpl<>(lessons, PageRequest.of(pageNo, pageSize), 3);
 
-        when(lessonRepository.findAllByCreatedBy(eq(userId), any(Pageable.class)))
+        when(lessonRepository.findSummariesByCreatedBy(eq(userId), any(Pageable.class)))
                 .thenReturn(lessonPage);
 
         // When
@@ -204,7 +332,7 @@ public class LessonServiceTest {
         assertEquals(1, response.totalPages());
         assertTrue(response.last());
 
-        verify(lessonRepository).findAllByCreatedBy(eq(userId), any(Pageable.class));
+        verify(lessonRepository).findSummariesByCreatedBy(eq(userId), any(Pageable.class));
 
     }
 
@@ -213,9 +341,9 @@ public class LessonServiceTest {
         // Given
         int pageNo = 0;
         int pageSize = 10;
-        Page<Lesson> emptyPage = new PageImpl<>(List.of(), PageRequest.of(pageNo, pageSize), 0);
+        Page<LessonSummary> emptyPage = new PageImpl<>(List.of(), PageRequest.of(pageNo, pageSize), 0);
 
-        when(lessonRepository.findAllByCreatedBy(eq(userId), any(Pageable.class)))
+        when(lessonRepository.findSummariesByCreatedBy(eq(userId), any(Pageable.class)))
                 .thenReturn(emptyPage);
 
         // When
@@ -235,29 +363,80 @@ public class LessonServiceTest {
         int pageNo = 0;
         int pageSize = 10;
         RuntimeException dbException = new RuntimeException("DB error");
-        when(lessonRepository.findAllByCreatedBy(eq(userId), any(Pageable.class))).thenThrow(dbException);
+        when(lessonRepository.findSummariesByCreatedBy(eq(userId), any(Pageable.class))).thenThrow(dbException);
 
         RuntimeException thrown = assertThrows(RuntimeException.class, () -> lessonService.getAllLessons(userId, pageNo, pageSize));
         assertEquals("DB error", thrown.getMessage());
     }
 
     @Test
-    void shouldDeleteLesson_WhenUserIsOwner() {
+    void shouldReturnCursor_WhenMoreLessonsFollow() {
+        // Given
+        int pageSize = 2;
+        List<LessonSummary> lessons = LessonFactory.createLessonSummaryList(3);
 
-        Lesson lesson = LessonFactory.createLessonWithContent();
+        when(lessonRepository.findFirstByCreatedBy(eq(userId), any(Limit.class))).thenReturn(lessons);
 
-        when(lessonRepository.findById(lessonId)).thenReturn(Optional.of(lesson));
+        // When
+        PagedResponse<LessonResponse> response = lessonService.getLessonsAfter(userId, "", pageSize, false);
 
-        lessonService.deleteLesson(lessonId, userId);
+        // Then
+        assertEquals(2, response.content().size());
+        assertFalse(response.last());
+        assertEquals(-1, response.totalElements());
+        assertEquals(LessonCursor.of(lessons.get(1)), LessonCursor.decode(response.nextCursor()));
+        verify(lessonRepository, never()).countByCreatedBy(any());
+    }
+
+    @Test
+    void shouldContinueAfterCursor() {
+        // Given
+        LessonSummary previous = LessonFactory.createLessonSummary();
+        String cursor = LessonCursor.of(previous).encode();
+
+        when(lessonRepository.findNextByCreatedBy(eq(userId), eq(previous.createdAt()), eq(previous.id()), any(Limit.class)))
+                .thenReturn(LessonFactory.createLessonSummaryList(1));
+        when(lessonRepository.countByCreatedBy(userId)).thenReturn(3L);
+
+        // When
+        PagedResponse<LessonResponse> response = lessonService.getLessonsAfter(userId, cursor, 2, true);
+
+        // Then
+        assertEquals(1, response.content().size());
+        assertTrue(response.last());
+        assertNull(response.nextCursor());
+        assertEquals(3, response.totalElements());
+        assertEquals(2, response.totalPages());
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> lessonService.getLessonsAfter(userId, "not-a-cursor", 10, false));
+        verifyNoInteractions(lessonRepository);
+    }
+
+    @Test
+    void shouldDeleteLesson_WhenUserIsOwner() {
+        // Given
+        when(lessonRepository.findFileKeysByIdAndCreatedBy(lessonId, userId))
+                .thenReturn(List.of(new LessonFileKey(lessonId, userId, LessonFactory.DEFAULT_S3_KEY)));
 
-        verify(lessonRepository).delete(lesson);
+        // When
+        lessonService.deleteLesson(lessonId, userId);
 
+        // Then
+        verify(lessonRepository).deleteContentByLessonIdIn(List.of(lessonId));
+        verify(lessonRepository).deleteByIdIn(List.of(lessonId));
+        verify(lessonRepository, never()).findById(any());
+        verify(eventPublisher).publishEvent(new LessonDeleteEvent(lessonId, List.of(LessonFactory.DEFAULT_S3_KEY)));
     }
 
     @Test
     void shouldThrowResourceNotFoundException_WhenLessonDoesNotExist() {
         // Given
-        when(lessonRepository.findById(lessonId)).thenReturn(Optional.empty());
+        when(lessonRepository.findFileKeysByIdAndCreatedBy(lessonId, userId)).thenReturn(List.of());
+        when(lessonRepository.findCreatedById(lessonId)).thenReturn(Optional.empty());
 
         // When
         Exception ex = assertThrows(ResourceNotFoundException.class,
@@ -266,25 +445,128 @@ public class LessonServiceTest {
         // Then
         assertEquals(ErrorMessages.LESSON_NOT_FOUND, ex.getMessage());
         verifyNoInteractions(fileStorageClient);
-        verify(lessonRepository, never()).deleteById(lessonId);
+        verify(lessonRepository, never()).deleteByIdIn(any());
     }
 
     @Test
     void shouldThrowAccessDeniedException_WhenUserIsNotOwner() {
         // Given
-        long wrongUserId = 200L;
-        Lesson lesson = LessonFactory.createLesson();
-        when(lessonRepository.findById(lessonId)).thenReturn(Optional.of(lesson));
+        when(lessonRepository.findFileKeysByIdAndCreatedBy(lessonId, otherUserId)).thenReturn(List.of());
+        when(lessonRepository.findCreatedById(lessonId)).thenReturn(Optional.of(userId));
 
+        // When
         Exception ex = assertThrows(ForbiddenAccessException.class,
                 () -> lessonService.deleteLesson(lessonId, otherUserId));
 
+        // Then
         assertEquals(ErrorMessages.ACCESS_DENIED, ex.getMessage());
         verifyNoInteractions(fileStorageClient);
-        verify(lessonRepository, never()).deleteById(lessonId);
+        verify(lessonRepository, never()).deleteByIdIn(any());
+    }
+
+    @Test
+    void shouldDeleteLessonsInBulkAndPublishOneEvent_WhenUserOwnsAll() {
+        // Given
+        UUID secondId = UUID.randomUUID();
+        when(lessonRepository.findFileKeysByIdIn(Set.of(lessonId, secondId))).thenReturn(List.of(
+                new LessonFileKey(lessonId, userId, "key-1"),
+                new LessonFileKey(secondId, userId, "key-2")));
+
+        // When
+        int deleted = lessonService.deleteLessons(List.of(lessonId, secondId), userId);
+
+        // Then
+        assertEquals(2, deleted);
+        verify(lessonRepository).deleteContentByLessonIdIn(List.of(lessonId, secondId));
+        verify(lessonRepository).deleteByIdIn(List.of(lessonId, secondId));
+        verify(eventPublisher).publishEvent(new LessonsDeleteEvent(List.of(lessonId, secondId), List.of("key-1", "key-2")));
+    }
+
+    @Test
+    void shouldRejectBulkDelete_WhenAnyLessonBelongsToOtherUser() {
+        // Given
+        UUID foreignId = UUID.randomUUID();
+        when(lessonRepository.findFileKeysByIdIn(Set.of(lessonId, foreignId))).thenReturn(List.of(
+                new LessonFileKey(lessonId, userId, "key-1"),
+                new LessonFileKey(foreignId, otherUserId, "key-2")));
+
+        // When / Then
+        assertThrows(ForbiddenAccessException.class,
+                () -> lessonService.deleteLessons(List.of(lessonId, foreignId), userId));
+        verify(lessonRepository, never()).deleteByIdIn(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void getContentVersion_shouldResolveWithoutStorage_AndRejectForeignOrEmptyLessons() {
+        // Given
+        UUID contentId = UUID.randomUUID();
+        UUID emptyLessonId = UUID.randomUUID();
+        Instant createdAt = Instant.parse("2024-05-01T10:00:00Z");
+        ContentVersion version = new ContentVersion(lessonId, userId, contentId, "0badf00d", createdAt);
+        when(lessonRepository.findContentVersionById(lessonId)).thenReturn(Optional.of(version));
+        when(lessonRepository.findContentVersionById(emptyLessonId))
+                .thenReturn(Optional.of(new ContentVersion(emptyLessonId, userId, null, null, null)));
+
+        // When / Then
+        assertEquals(version, lessonService.getContentVersion(lessonId, userId));
+        assertThrows(ForbiddenAccessException.class, () -> lessonService.getContentVersion(lessonId, otherUserId));
+        Exception ex = assertThrows(ResourceNotFoundException.class,
+                () -> lessonService.getContentVersion(emptyLessonId, userId));
+        assertEquals(ErrorMessages.LESSON_CONTENT_NOT_FOUND, ex.getMessage());
+        verifyNoInteractions(fileStorageClient);
+    }
+
+    @Test
+    void getLessonContent_shouldFetchOnlyRequestedPage_WhenContentIsIndexed() {
+        // Given
+        String text = "Default file content with more than one page";
+        Content content = LessonFactory.createContent();
+        PageIndex index = PageIndex.build(text, TextPaginator.DEFAULT_PAGE_SIZE);
+
+        when(lessonRepository.findContentByLessonIdAndCreatedBy(lessonId, userId)).thenReturn(Optional.of(content));
+        when(contentIndexes.pageIndex(content)).thenReturn(index);
+        when(fileStorageClient.getFileContentRange(LessonFactory.DEFAULT_S3_KEY, ContentCodec.IDENTITY, index.byteStart(1), index.byteLength(1)))
+                .thenReturn(text.substring(index.start(1), index.end(1)));
+
+        // When
+        LessonContentResponse response = lessonService.getLessonContent(
+                lessonId, userId, 1, TextPaginator.DEFAULT_PAGE_SIZE, PaginationUnit.CHARS);
+
+        // Then
+        assertEquals("than one page", response.pagedResponse().content().get(0));
+        assertEquals(index.pageCount(), response.pagedResponse().totalPages());
+        verify(fileStorageClient, never()).getFileContent(anyString(), any());
+        for (String stage : List.of("lookup", "index", "fetch", "paginate")) {
+            assertEquals(1, meterRegistry.get("lesson.stage")
+                    .tags("operation", "content", "stage", stage, "outcome", "success")
+                    .timer().count());
+        }
     }
 
     // successfully get lesson content when valid user
+    @Test
+    void writeRawContent_shouldCopyOnlyTheChunksOverlappingTheRange() throws IOException {
+        // Given
+        String text = "Default file content with more than one page, split over three chunks";
+        PageIndex index = PageIndex.build(text, 10);
+        List<ContentChunk> chunks = List.of(
+                new ContentChunk("chunk-0", 0), new ContentChunk("chunk-1", 2), new ContentChunk("chunk-2", 4));
+        Content content = Content.createChunked(chunks, 12, text.length(), "0badf00d", ContentCodec.IDENTITY);
+        when(contentIndexes.pageIndex(content)).thenReturn(index);
+        long secondChunk = index.byteStart(2);
+        long thirdChunk = index.byteStart(4);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        lessonService.writeRawContent(content, secondChunk + 3, thirdChunk - secondChunk, out);
+
+        // Then
+        verify(fileStorageClient, never()).copyFileContent(eq("chunk-0"), any(), anyLong(), anyLong(), any());
+        verify(fileStorageClient).copyFileContent("chunk-1", ContentCodec.IDENTITY, 3, thirdChunk - secondChunk - 3, out);
+        verify(fileStorageClient).copyFileContent("chunk-2", ContentCodec.IDENTITY, 0, 3, out);
+    }
+
 //    @Test
 //    void getLessonContent_shouldReturnLessonContent_WhenValidOwner() {
 //
@@ -318,7 +600,7 @@ public class LessonServiceTest {
 //
 //        // Then
 //        assertEquals(ErrorMessages.ACCESS_DENIED, ex.getMessage());
-//        verify(fileStorageClient, never()).getFileContent(anyString());
+//        verify(fileStorageClient, never()).getFileContent(anyString(), any());
 //    }
 //
 //    @Test
@@ -330,8 +612,46 @@ public class LessonServiceTest {
 //                () -> lessonService.getLessonContent(lessonId, userId));
 //
 //        assertEquals(ErrorMessages.LESSON_NOT_FOUND, ex.getMessage());
-//        verify(fileStorageClient, never()).getFileContent(anyString());
+//        verify(fileStorageClient, never()).getFileContent(anyString(), any());
 //
 //    }
     // throw exception lesson not found
+
+    /**
+     * Creates a lesson from the text through the service, with the file service replaced by a map of
+     * stored objects. The saved content is then served back for this lesson, its objects from the map.
+     */
+    private SavedLesson createLessonInMemory(String text, int chunkBytes) {
+        ReflectionTestUtils.setField(lessonService, "chunkBytes", chunkBytes);
+        MockMultipartFile file = new MockMultipartFile(
+                "file", "lesson.txt", "text/plain", text.getBytes(StandardCharsets.UTF_8));
+        Map<String, String> stored = new HashMap<>();
+        when(fileStorageClient.storeFile(any(FileUpload.class))).thenAnswer(invocation -> {
+            FileUpload upload = invocation.getArgument(0);
+            String key = "chunk-" + stored.size();
+            stored.put(key, new String(upload.content().readAllBytes(), StandardCharsets.UTF_8));
+            return new StoredFile(key);
+        });
+        when(lessonRepository.save(any(Lesson.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        ArgumentCaptor<Lesson> savedLesson = ArgumentCaptor.forClass(Lesson.class);
+        ArgumentCaptor<ContentPageIndex> savedPageIndex = ArgumentCaptor.forClass(ContentPageIndex.class);
+        ArgumentCaptor<ContentBoundaries> savedBoundaries = ArgumentCaptor.forClass(ContentBoundaries.class);
+
+        lessonService.createLesson(file, userId);
+
+        verify(lessonRepository).save(savedLesson.capture());
+        verify(contentPageIndexRepository).save(savedPageIndex.capture());
+        verify(contentBoundariesRepository).save(savedBoundaries.capture());
+        Content content = savedLesson.getValue().getContent();
+        PageIndex pageIndex = savedPageIndex.getValue().getPageIndex();
+        when(lessonRepository.findContentByLessonIdAndCreatedBy(lessonId, userId)).thenReturn(Optional.of(content));
+        lenient().when(contentIndexes.pageIndex(content)).thenReturn(pageIndex);
+        when(fileStorageClient.getFileContent(anyString(), eq(ContentCodec.IDENTITY)))
+                .thenAnswer(invocation -> stored.get(invocation.<String>getArgument(0)));
+        return new SavedLesson(content, pageIndex, savedBoundaries.getValue(), stored);
+    }
+
+    private record SavedLesson(
+            Content content, PageIndex pageIndex, ContentBoundaries boundaries, Map<String, String> stored) {
+    }
 }
@@ -0,0 +1,94 @@
+package pl.kamil.content_service.shared.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserJwtAuthenticationConverterTest {
+
+    private final UserJwtAuthenticationConverter converter = new UserJwtAuthenticationConverter();
+
+    @Test
+    void shouldCarryUserIdAndScopes_WhenTokenHasUserId() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        Jwt jwt = jwt(userId.toString());
+
+        // When
+        AbstractAuthenticationToken authentication = converter.convert(jwt);
+
+        // Then
+        UserJwtAuthenticationToken userToken = assertInstanceOf(UserJwtAuthenticationToken.class, authentication);
+        assertEquals(userId, userToken.getUserId());
+        assertSame(jwt, userToken.getToken());
+        assertEquals("SCOPE_lessons", userToken.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .findFirst()
+                .orElseThrow());
+    }
+
+    @Test
+    void shouldReuseParsedUserId_WhenTokenCameFromCachingDecoder() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        UserJwt jwt = UserJwt.from(jwt(userId.toString()));
+
+        // When
+        AbstractAuthenticationToken authentication = converter.convert(jwt);
+
+        // Then
+        assertEquals(userId, ((UserJwtAuthenticationToken) authentication).getUserId());
+        assertSame(jwt, ((UserJwtAuthenticationToken) authentication).getToken());
+    }
+
+    @Test
+    void shouldBuildFreshAuthenticationPerRequest() {
+        // Given
+        UserJwt jwt = UserJwt.from(jwt(UUID.randomUUID().toString()));
+
+        // When
+        AbstractAuthenticationToken first = converter.convert(jwt);
+        AbstractAuthenticationToken second = converter.convert(jwt);
+
+        // Then
+        assertNotSame(first, second);
+    }
+
+    @Test
+    void shouldRejectToken_WhenUserIdMissing() {
+        // Given
+        Jwt jwt = jwt(null);
+
+        // When & Then
+        assertThrows(InvalidBearerTokenException.class, () -> converter.convert(jwt));
+    }
+
+    @Test
+    void shouldRejectToken_WhenUserIdMalformed() {
+        // Given
+        Jwt jwt = jwt("not-a-uuid");
+
+        // When & Then
+        assertThrows(InvalidBearerTokenException.class, () -> converter.convert(jwt));
+    }
+
+    private static Jwt jwt(String userId) {
+        Jwt.Builder builder = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("user")
+                .claim("scope", "lessons")
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(60));
+        if (userId != null) {
+            builder.claim("user_id", userId);
+        }
+        return builder.build();
+    }
+}
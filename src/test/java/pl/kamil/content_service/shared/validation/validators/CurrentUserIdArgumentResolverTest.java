@@ -0,0 +1,100 @@
+package pl.kamil.content_service.shared.validation.validators;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import pl.kamil.content_service.shared.security.UserJwtAuthenticationToken;
+import pl.kamil.content_service.shared.validation.annotations.CurrentUserId;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CurrentUserIdArgumentResolverTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    private final CurrentUserIdArgumentResolver resolver = new CurrentUserIdArgumentResolver();
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldSupportOnlyAnnotatedParameters() throws NoSuchMethodException {
+        assertTrue(resolver.supportsParameter(parameter(0)));
+        assertTrue(resolver.supportsParameter(parameter(1)));
+        assertFalse(resolver.supportsParameter(parameter(2)));
+    }
+
+    @Test
+    void shouldResolveParsedUserId_WhenAuthenticatedAsUser() throws Exception {
+        // Given
+        authenticate(new UserJwtAuthenticationToken(jwt(), AuthorityUtils.NO_AUTHORITIES, USER_ID));
+
+        // When
+        Object asUuid = resolver.resolveArgument(parameter(0), null, null, null);
+        Object asString = resolver.resolveArgument(parameter(1), null, null, null);
+
+        // Then
+        assertEquals(USER_ID, asUuid);
+        assertEquals(USER_ID.toString(), asString);
+    }
+
+    @Test
+    void shouldReadUserIdClaim_WhenAuthenticatedWithPlainJwt() throws Exception {
+        // Given
+        authenticate(new JwtAuthenticationToken(jwt()));
+
+        // When
+        Object asUuid = resolver.resolveArgument(parameter(0), null, null, null);
+        Object asString = resolver.resolveArgument(parameter(1), null, null, null);
+
+        // Then
+        assertEquals(USER_ID, asUuid);
+        assertEquals(USER_ID.toString(), asString);
+    }
+
+    @Test
+    void shouldResolveNull_WhenNotAuthenticatedWithJwt() throws Exception {
+        // Given
+        authenticate(new UsernamePasswordAuthenticationToken("user", "password"));
+
+        // When
+        Object userId = resolver.resolveArgument(parameter(0), null, null, null);
+
+        // Then
+        assertNull(userId);
+    }
+
+    private static void authenticate(Authentication authentication) {
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+
+    private static Jwt jwt() {
+        return Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .claim("user_id", USER_ID.toString())
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(60))
+                .build();
+    }
+
+    private static MethodParameter parameter(int index) throws NoSuchMethodException {
+        return new MethodParameter(
+                Handler.class.getDeclaredMethod("handle", UUID.class, String.class, UUID.class), index);
+    }
+
+    private static class Handler {
+        void handle(@CurrentUserId UUID userId, @CurrentUserId String rawUserId, UUID lessonId) {
+        }
+    }
+}